@@ -3,5 +3,5 @@ FX_PATH="/path/to/javafx-sdk/lib"
 JAVA_PATH="/path/to/jdk/bin/java"
 JAR=/path/to/PersonalDailyPlanner.jar
 cd "$(dirname "$0")" || exit
-$JAVA_PATH --module-path $FX_PATH --add-modules javafx.controls,javafx.graphics,javafx.swing,javafx.media,javafx.web -jar $JAR
+$JAVA_PATH --module-path $FX_PATH --add-modules javafx.controls,javafx.graphics,javafx.swing,javafx.media,javafx.web -jar $JAR "$@"
 
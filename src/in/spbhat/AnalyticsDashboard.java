@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import in.spbhat.TaskAnalytics.PriorityRollup;
+import in.spbhat.TaskAnalytics.Rollup;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.chart.*;
+import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.util.StringConverter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Charts of the expected and actual durations of the completed tasks, drawn from the {@link TaskAnalytics}.
+ */
+public class AnalyticsDashboard extends Stage {
+    private static final DateTimeFormatter weekFormat = DateTimeFormatter.ofPattern("dd MMM yy");
+
+    private TaskAnalytics analytics;
+    private final ChoiceBox<Integer> weeksChoice = new ChoiceBox<>();
+    private final LineChart<String, Number> errorChart = new LineChart<>(new CategoryAxis(), new NumberAxis());
+    private final BarChart<String, Number> weeklyChart = new BarChart<>(new CategoryAxis(), new NumberAxis());
+    private final BarChart<String, Number> priorityChart = new BarChart<>(new CategoryAxis(), new NumberAxis());
+    private final Label status = new Label("Updating the task analytics...");
+
+    public AnalyticsDashboard() {
+        weeksChoice.getItems().addAll(4, 12, 26, 52, 0); // 0 for all
+        weeksChoice.setValue(12);
+        weeksChoice.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(Integer weeks) {
+                return weeks == null ? "" : weeks == 0 ? "All" : "Last %d weeks".formatted(weeks);
+            }
+
+            @Override
+            public Integer fromString(String string) {
+                return null;
+            }
+        });
+        weeksChoice.valueProperty().addListener((_, _, _) -> showCharts());
+        HBox toolBar = new HBox(new Label("Period:"), weeksChoice, status);
+        toolBar.setSpacing(5);
+        toolBar.setAlignment(Pos.CENTER_LEFT);
+
+        errorChart.setTitle("Estimation error per week (actual vs. expected, %)");
+        errorChart.setLegendVisible(false);
+        weeklyChart.setTitle("Time spent on completed tasks per week (hours)");
+        weeklyChart.setLegendVisible(false);
+        priorityChart.setTitle("Time spent per priority (hours)");
+        TabPane tabs = new TabPane(
+                new Tab("Estimation Error", errorChart),
+                new Tab("Weekly Time", weeklyChart),
+                new Tab("Time per Priority", priorityChart));
+        tabs.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+        VBox.setVgrow(tabs, Priority.ALWAYS);
+
+        VBox root = new VBox(toolBar, tabs);
+        root.setSpacing(5);
+        root.setPadding(new Insets(10));
+        root.setDisable(true);
+
+        setScene(new Scene(root, 900, 600));
+        setTitle("Task Analytics");
+
+        Thread.startVirtualThread(() -> {
+            try {
+                long start = System.nanoTime();
+                TaskAnalytics loaded = TaskAnalytics.load(Path.of("plans"));
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                Platform.runLater(() -> {
+                    analytics = loaded;
+                    status.setText("%d days of tasks, updated in %d ms".formatted(loaded.numDays(), millis));
+                    root.setDisable(false);
+                    showCharts();
+                });
+            } catch (IOException e) {
+                e.printStackTrace();
+                Platform.runLater(() -> status.setText("Unable to read the logs: " + e.getMessage()));
+            }
+        });
+    }
+
+    private void showCharts() {
+        if (analytics == null) {
+            return;
+        }
+        LocalDate today = Planner.now.toLocalDate();
+        int numWeeks = weeksChoice.getValue();
+        List<Rollup> weeks = analytics.weekly(numWeeks == 0 ? LocalDate.EPOCH : today.minusWeeks(numWeeks - 1), today);
+
+        XYChart.Series<String, Number> error = new XYChart.Series<>();
+        XYChart.Series<String, Number> hours = new XYChart.Series<>();
+        for (Rollup week : weeks) {
+            String label = week.start().format(weekFormat);
+            if (week.estimated() > 0) {
+                error.getData().add(new XYChart.Data<>(label, week.estimationErrorPercent()));
+            }
+            hours.getData().add(new XYChart.Data<>(label, week.actualSeconds() / 3600.0));
+        }
+        errorChart.getData().setAll(List.of(error));
+        weeklyChart.getData().setAll(List.of(hours));
+
+        // all the history, the sums per priority are not kept per week
+        XYChart.Series<String, Number> actual = new XYChart.Series<>();
+        actual.setName("Actual");
+        XYChart.Series<String, Number> expected = new XYChart.Series<>();
+        expected.setName("Expected (tasks with an estimate)");
+        for (PriorityRollup priority : analytics.byPriority()) {
+            String label = priority.priority() == 0 ? "Not logged" : "P" + priority.priority();
+            actual.getData().add(new XYChart.Data<>(label, priority.actualSeconds() / 3600.0));
+            expected.getData().add(new XYChart.Data<>(label, priority.expectedSeconds() / 3600.0));
+        }
+        priorityChart.getData().setAll(List.of(actual, expected));
+    }
+}
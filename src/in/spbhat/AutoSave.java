@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import javafx.animation.PauseTransition;
+import javafx.beans.property.SimpleBooleanProperty;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.prefs.Preferences;
+
+/**
+ * Saves the plan data automatically a short while after it is changed.
+ * <p>
+ * A burst of changes (e.g. typing) is written once, after no change is made for {@link #quietPeriod},
+ * but at least every {@link #maxDelay} while the changes keep coming.
+ * The changes are already written to the {@link PlanJournal}, so it is only flushed, and the plan file
+ * is written when saving. If the journal could not be opened, the plan file is written instead,
+ * unless the content is the same as the last written one.
+ */
+public class AutoSave {
+    private static final javafx.util.Duration quietPeriod = javafx.util.Duration.seconds(5);
+    private static final java.time.Duration maxDelay = java.time.Duration.ofMinutes(1);
+    private static final Preferences preferences = Preferences.userNodeForPackage(AutoSave.class);
+
+    public static final SimpleBooleanProperty enabled =
+            new SimpleBooleanProperty(preferences.getBoolean("autoSave", false));
+
+    private static Supplier<PlanData> planSupplier;
+    private static PauseTransition debounce;
+    private static volatile byte[] lastSavedHash;
+    private static long dirtySinceNanos = -1;
+    // the changes made in a frame (e.g. a paste, or loading a plan) are handled once
+    private static final UiUpdates.Trigger changed = UiUpdates.trigger(AutoSave::markDirty);
+
+    /**
+     * Starts watching the plan for changes.
+     *
+     * @param planSupplier captures the current plan, called on the JavaFX Application Thread
+     */
+    public static void start(Supplier<PlanData> planSupplier) {
+        AutoSave.planSupplier = planSupplier;
+        if (!PlanJournal.isOpen()) {
+            lastSavedHash = hash(planSupplier.get());
+        }
+        debounce = new PauseTransition(quietPeriod);
+        debounce.setOnFinished(_ -> flush());
+        enabled.addListener((_, _, isEnabled) -> {
+            preferences.putBoolean("autoSave", isEnabled);
+            if (isEnabled) flush();
+        });
+        PlanObserver.observe(_ -> changed.request());
+    }
+
+    private static void markDirty() {
+        if (!enabled.get()) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (dirtySinceNanos < 0) {
+            dirtySinceNanos = now;
+        }
+        if (now - dirtySinceNanos >= maxDelay.toNanos()) {
+            flush();
+        } else {
+            debounce.playFromStart();
+        }
+    }
+
+    private static void flush() {
+        debounce.stop();
+        dirtySinceNanos = -1;
+        if (PlanJournal.isOpen()) {
+            Thread.startVirtualThread(PlanJournal::flush);
+            return;
+        }
+        PlanData plan = planSupplier.get();
+        byte[] hash = hash(plan);
+        if (Arrays.equals(hash, lastSavedHash)) {
+            return; // nothing has changed
+        }
+        lastSavedHash = hash;
+        PlanJournal.checkpoint(plan).whenComplete((_, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+                lastSavedHash = null; // retry on the next change
+            }
+        });
+    }
+
+    private static byte[] hash(PlanData plan) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer encoded = PlanCodec.encode(plan);
+            digest.update(encoded);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
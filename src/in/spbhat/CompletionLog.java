@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Appends the completed tasks to the log file of the day.
+ * <p>
+ * Callers only put the entry in a queue, a single writer thread keeps the file open
+ * and writes all the queued entries together. The file is synced at most once every {@link #syncInterval}.
+ * When the queue is full, the entries wait in an overflow queue, taken by the writer after the queue,
+ * so the entries are written in the order they were appended, and a flush covers all of them.
+ */
+public class CompletionLog {
+    private static final Duration syncInterval = Duration.ofSeconds(1);
+    private static final ArrayBlockingQueue<Object> queue = new ArrayBlockingQueue<>(1024);
+    // not empty only while the queue is full, guarded by itself
+    private static final ArrayDeque<Object> overflow = new ArrayDeque<>();
+    private static Consumer<Exception> failureHandler = Exception::printStackTrace;
+    private static final Path logFile = Path.of("plans", Planner.todayDateString + ".log");
+    private static volatile Thread writerThread;
+
+    private record Flush(CountDownLatch done) {
+    }
+
+    /**
+     * Called on the writer thread when the log could not be written.
+     */
+    public static void setFailureHandler(Consumer<Exception> handler) {
+        failureHandler = handler;
+    }
+
+    /**
+     * Queues the entry for writing, without waiting for it to be written.
+     */
+    public static void append(String entry) {
+        startWriter();
+        add(entry);
+    }
+
+    /**
+     * Waits until the queued entries are written and synced to the disk.
+     */
+    public static void flush() {
+        if (writerThread == null) {
+            return;
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        add(new Flush(done));
+        try {
+            if (!done.await(10, TimeUnit.SECONDS)) {
+                System.out.println("Completion log not flushed in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // without blocking the caller, after the items waiting in the overflow queue
+    private static void add(Object item) {
+        synchronized (overflow) {
+            if (!overflow.isEmpty() || !queue.offer(item)) {
+                overflow.add(item);
+            }
+        }
+    }
+
+    private static synchronized void startWriter() {
+        if (writerThread != null) {
+            return;
+        }
+        writerThread = Thread.startVirtualThread(CompletionLog::writeEntries);
+        Runtime.getRuntime().addShutdownHook(new Thread(CompletionLog::flush));
+    }
+
+    private static void writeEntries() {
+        FileChannel channel = null;
+        boolean unsynced = false;
+        long lastSyncNanos = System.nanoTime();
+        List<Object> batch = new ArrayList<>();
+        while (true) {
+            try {
+                Object first = unsynced
+                        ? queue.poll(syncInterval.toNanos(), TimeUnit.NANOSECONDS)
+                        : queue.take();
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch);
+                    synchronized (overflow) { // added while the queue was full, so after the ones drained
+                        batch.addAll(overflow);
+                        overflow.clear();
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            StringBuilder entries = new StringBuilder();
+            List<CountDownLatch> flushed = new ArrayList<>();
+            for (Object item : batch) {
+                if (item instanceof Flush(CountDownLatch done)) {
+                    flushed.add(done);
+                } else {
+                    entries.append(item).append(System.lineSeparator());
+                }
+            }
+            batch.clear();
+
+            try {
+                if (!entries.isEmpty()) {
+                    if (channel == null) {
+                        channel = FileChannel.open(logFile, StandardOpenOption.CREATE,
+                                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                    }
+                    ByteBuffer buffer = ByteBuffer.wrap(entries.toString().getBytes(UTF_8));
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    unsynced = true;
+                }
+                long now = System.nanoTime();
+                if (unsynced && (!flushed.isEmpty() || now - lastSyncNanos >= syncInterval.toNanos())) {
+                    channel.force(false);
+                    unsynced = false;
+                    lastSyncNanos = now;
+                }
+            } catch (IOException e) {
+                failureHandler.accept(e);
+                closeQuietly(channel);
+                channel = null; // reopen on the next entry
+                unsynced = false;
+            }
+            flushed.forEach(CountDownLatch::countDown);
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException ignore) {
+        }
+    }
+}
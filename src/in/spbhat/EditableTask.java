@@ -5,51 +5,64 @@
 
 package in.spbhat;
 
+import in.spbhat.PlanData.TaskData;
 import in.spbhat.icons.Icon;
 import javafx.application.Platform;
-import javafx.beans.property.SimpleObjectProperty;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
 import javafx.scene.effect.Glow;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Arc;
 import javafx.scene.shape.ArcType;
-import javafx.scene.shape.Circle;
 
 import java.time.Duration;
 
-public class EditableTask extends HBox {
-    private final Pane parent;
-    public final TextField taskField;
-    public final CheckBox taskCompleted;
-    public String notes;
-    public int priority = PrioritiesSection.defaultPriority;
-
-    public SimpleObjectProperty<Duration> expectedDuration;
-    public SimpleObjectProperty<Duration> actualDuration;
+/**
+ * A row of the priorities list, showing a task of the {@link TaskModel} and making the edits to it in the model.
+ * <p>
+ * The list creates only as many rows as are visible, and reuses them for the other tasks while scrolling,
+ * so the row shows whichever task it is given by {@link #updateItem(TaskData, boolean)}.
+ */
+public class EditableTask extends ListCell<TaskData> {
+    private static final Background completeBackground = new Background(new BackgroundFill(Color.LIGHTGRAY, null, null));
+    private static final Background inProcessBackground = new Background(new BackgroundFill(Color.LIGHTGREEN, null, null));
+    private static final Background incompleteBackground = new Background(new BackgroundFill(Color.WHITE, null, null));
+    private static final Glow noNotesEffect = new Glow(0.9);
+
+    private final HBox row;
+    private final TextField taskField;
+    private final CheckBox taskCompleted;
+    private final ClockFace clockFace;
     private final Tooltip tooltipClockFace;
     private final Button notesBtn;
-
+    private TaskData task; // shown now
+    private EditableTaskStatus shownStatus;
 
     public enum EditableTaskStatus {
         INCOMPLETE, IN_PROCESS, COMPLETE
     }
 
-    public EditableTask(Pane parent, String taskDescription, EditableTaskStatus status, int expectedDurationMinutes, int actualDurationMinutes, String notes) {
-        this.parent = parent;
+    public EditableTask() {
         taskCompleted = new CheckBox();
-        taskCompleted.setSelected(status == EditableTaskStatus.COMPLETE);
         taskCompleted.setAllowIndeterminate(true);
-        taskCompleted.setIndeterminate(status == EditableTaskStatus.IN_PROCESS);
-        taskCompleted.setOnAction(_ -> taskCompleted());
+        taskCompleted.setOnAction(_ -> {
+            EditableTaskStatus status = status();
+            System.out.printf("Task '%s' is %s%n", task.description(), switch (status) {
+                case INCOMPLETE -> "incomplete";
+                case IN_PROCESS -> "in progress";
+                case COMPLETE -> "completed";
+            });
+            styleTextField(status);
+            TaskModel.setStatus(task.id(), status);
+        });
         Tooltip statusTooltip = new Tooltip("In process (Green) / Complete (Gray)");
         taskCompleted.setTooltip(statusTooltip);
 
-        taskField = new TextField(taskDescription);
-        styleTextField();
+        taskField = new TextField();
         taskField.setFont(Section.writeAreaFont);
         taskField.setPromptText("Task description");
         taskField.setPrefColumnCount(22);
@@ -57,25 +70,23 @@ public class EditableTask extends HBox {
         Tooltip taskTooltip = new Tooltip();
         taskTooltip.setOnShowing(_ -> taskTooltip.setText(taskField.getText()));
         taskField.setTooltip(taskTooltip);
-
-        expectedDuration = new SimpleObjectProperty<>(Duration.ofMinutes(expectedDurationMinutes));
-        actualDuration = new SimpleObjectProperty<>(Duration.ofMinutes(actualDurationMinutes));
-
-        this.notes = notes;
+        // setting the text of another task does not change anything in the model
+        taskField.textProperty().addListener((_, _, text) -> {
+            if (task != null) TaskModel.setDescription(task.id(), text);
+        });
 
         HBox.setHgrow(taskField, Priority.ALWAYS);
 
-        ClockFace clockFace = new ClockFace(20);
+        clockFace = new ClockFace(20);
         Button timerBtn = new Button();
         timerBtn.setGraphic(clockFace);
         timerBtn.setOnAction(_ -> editDurationAndPriority());
         tooltipClockFace = new Tooltip();
         tooltipClockFace.setShowDuration(javafx.util.Duration.seconds(20));
         tooltipClockFace.setShowDelay(javafx.util.Duration.seconds(0.5));
-        expectedDuration.addListener((_, _, _) -> updateTooltipClockFace());
-        actualDuration.addListener((_, _, _) -> updateTooltipClockFace());
+        // the text is needed only when the tooltip is shown
+        tooltipClockFace.setOnShowing(_ -> updateTooltipClockFace());
         timerBtn.setTooltip(tooltipClockFace);
-        updateTooltipClockFace();
 
         Button removeTaskBtn = new Button("Remove", Icon.graphic("remove.png", 20));
         removeTaskBtn.setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
@@ -85,34 +96,51 @@ public class EditableTask extends HBox {
         notesBtn = new Button("Notes", Icon.graphic("notes_btn_icon.png", 20));
         notesBtn.setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
         notesBtn.setOnAction(_ -> showNotes());
-        updateNotesBtn();
         notesBtn.setTooltip(new Tooltip("Show additional notes..."));
 
-        getChildren().addAll(taskCompleted, taskField, timerBtn, notesBtn, removeTaskBtn);
-        setSpacing(2);
-        setAlignment(Pos.CENTER);
-
-        expectedDuration.addListener((_, _, _) -> clockFace.update());
-        actualDuration.addListener((_, _, _) -> clockFace.update());
+        row = new HBox(taskCompleted, taskField, timerBtn, notesBtn, removeTaskBtn);
+        row.setSpacing(2);
+        row.setAlignment(Pos.CENTER);
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        setPadding(new Insets(1, 2, 1, 2));
     }
 
-    private void updateNotesBtn() {
-        if (notes.isBlank()) {
-            notesBtn.setEffect(new Glow(0.9));
-        } else {
-            notesBtn.setEffect(null);
+    @Override
+    protected void updateItem(TaskData newTask, boolean empty) {
+        super.updateItem(newTask, empty);
+        if (empty || newTask == null) {
+            task = null;
+            setGraphic(null);
+            return;
+        }
+        boolean sameTask = task != null && task.id() == newTask.id();
+        task = newTask;
+        if (!taskField.getText().equals(newTask.description())) {
+            taskField.setText(newTask.description());
+        }
+        if (newTask.status() != shownStatus) {
+            taskCompleted.setSelected(newTask.status() == EditableTaskStatus.COMPLETE);
+            taskCompleted.setIndeterminate(newTask.status() == EditableTaskStatus.IN_PROCESS);
+            styleTextField(newTask.status());
+        }
+        notesBtn.setEffect(newTask.notes().isBlank() ? noNotesEffect : null);
+        clockFace.draw(newTask.expectedDuration(), newTask.actualDuration());
+        setGraphic(row);
+        if (!sameTask && PrioritiesSection.takeFocusRequest(newTask.id())) {
+            Platform.runLater(taskField::requestFocus);
         }
     }
 
     private void updateTooltipClockFace() {
-        Platform.runLater(() -> tooltipClockFace.setText("Duration Expected: %s, Actual: %s"
-                .formatted(format(expectedDuration.get()), format(actualDuration.get()))));
+        tooltipClockFace.setText("Duration Expected: %s, Actual: %s"
+                .formatted(format(task.expectedDuration()), format(TimeTracker.actualDuration(task))));
     }
 
     private void showNotes() {
+        TaskData task = this.task; // the row may show another task when the dialog is closed
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         DialogPane notesDialog = new DialogPane();
-        TextArea notesText = new TextArea(notes);
+        TextArea notesText = new TextArea(task.notes());
         notesText.setPrefColumnCount(50);
         notesText.setPrefRowCount(10);
 
@@ -122,16 +150,15 @@ public class EditableTask extends HBox {
         notesDialog.setContent(textAreaBox);
         notesDialog.setMaxWidth(1000);
         notesDialog.getButtonTypes().addAll(ButtonType.CANCEL, ButtonType.OK);
-        notesDialog.setHeaderText("Notes for Task: '%s'".formatted(taskField.getText()));
+        notesDialog.setHeaderText("Notes for Task: '%s'".formatted(task.description()));
         notesDialog.setGraphic(Icon.graphic("notes.png", 64));
 
         alert.setDialogPane(notesDialog);
         alert.setResizable(true);
-        alert.setTitle("Notes for '%s'".formatted(taskField.getText()));
+        alert.setTitle("Notes for '%s'".formatted(task.description()));
         alert.showAndWait().ifPresent(buttonType -> {
             if (buttonType == ButtonType.OK) {
-                notes = notesText.getText();
-                updateNotesBtn();
+                TaskModel.setNotes(task.id(), notesText.getText());
             }
         });
     }
@@ -152,38 +179,38 @@ public class EditableTask extends HBox {
         return (hr != 0 ? "%02d:".formatted(hr) : "") + "%02d:%02d".formatted(min, sec);
     }
 
-    private void taskCompleted() {
-        styleTextField();
-    }
-
-    @Override
-    public void requestFocus() {
-        taskField.requestFocus();
+    private EditableTaskStatus status() {
+        return taskCompleted.isSelected() ? EditableTaskStatus.COMPLETE
+                : taskCompleted.isIndeterminate() ? EditableTaskStatus.IN_PROCESS
+                : EditableTaskStatus.INCOMPLETE;
     }
 
-    private void styleTextField() {
-        if (taskCompleted.isSelected()) {
-            System.out.printf("Task '%s' completed%n", taskField.getText());
-            taskField.setEditable(false);
-            taskField.setBackground(new Background(new BackgroundFill(Color.LIGHTGRAY, null, null)));
-            taskField.setStyle("-fx-text-inner-color: white;");
-        } else if (taskCompleted.isIndeterminate()) {
-            System.out.printf("Task '%s' is in progress%n", taskField.getText());
-            taskField.setEditable(true);
-            taskField.setBackground(new Background(new BackgroundFill(Color.LIGHTGREEN, null, null)));
-            taskField.setStyle("-fx-text-inner-color: black;");
-        } else {
-            System.out.printf("Task '%s' is incomplete%n", taskField.getText());
-            taskField.setEditable(true);
-            taskField.setBackground(new Background(new BackgroundFill(Color.WHITE, null, null)));
-            taskField.setStyle("-fx-text-inner-color: black;");
+    private void styleTextField(EditableTaskStatus status) {
+        shownStatus = status;
+        switch (status) {
+            case COMPLETE -> {
+                taskField.setEditable(false);
+                taskField.setBackground(completeBackground);
+                taskField.setStyle("-fx-text-inner-color: white;");
+            }
+            case IN_PROCESS -> {
+                taskField.setEditable(true);
+                taskField.setBackground(inProcessBackground);
+                taskField.setStyle("-fx-text-inner-color: black;");
+            }
+            case INCOMPLETE -> {
+                taskField.setEditable(true);
+                taskField.setBackground(incompleteBackground);
+                taskField.setStyle("-fx-text-inner-color: black;");
+            }
         }
     }
 
     private void removeTask() {
+        TaskData task = this.task;
         // If task is blank no need to confirm
         if (taskField.getText().isBlank()) {
-            parent.getChildren().remove(this);
+            TaskModel.remove(task.id());
             return;
         }
 
@@ -194,22 +221,23 @@ public class EditableTask extends HBox {
         dialog.setHeaderText("Confirm Delete?");
         dialog.showAndWait().ifPresent(buttonType -> {
             if (buttonType.equals(ButtonType.OK)) {
-                PrioritiesSection.writeToLogFile(this);
-                parent.getChildren().remove(this);
+                TaskModel.task(task.id()).ifPresent(PrioritiesSection::writeToLogFile);
+                TaskModel.remove(task.id());
             }
         });
     }
 
     private void editDurationAndPriority() {
+        TaskData task = this.task;
         TextField expectedDurationField = new TextField();
         expectedDurationField.setPrefColumnCount(4);
-        expectedDurationField.setText(String.valueOf(expectedDuration.get().toMinutes()));
+        expectedDurationField.setText(String.valueOf(task.expectedDuration().toMinutes()));
 
         TextField actualDurationField = new TextField();
         actualDurationField.setPrefColumnCount(4);
-        actualDurationField.setText(String.valueOf(actualDuration.get().toMinutes()));
+        actualDurationField.setText(String.valueOf(task.actualDuration().toMinutes()));
 
-        Spinner<Integer> prioritySpinner = new Spinner<>(1, 10, priority);
+        Spinner<Integer> prioritySpinner = new Spinner<>(1, 10, task.priority());
         prioritySpinner.getStyleClass().add(Spinner.STYLE_CLASS_SPLIT_ARROWS_HORIZONTAL);
         prioritySpinner.getEditor().setPrefColumnCount(6);
         prioritySpinner.getEditor().setAlignment(Pos.CENTER);
@@ -228,7 +256,7 @@ public class EditableTask extends HBox {
         Node graphic = Icon.graphic("sliders.png", 64);
         dialogPane.setPrefWidth(400);
         dialogPane.setGraphic(graphic);
-        dialogPane.setHeaderText("Task: " + taskField.getText());
+        dialogPane.setHeaderText("Task: " + task.description());
         dialogPane.setContent(durationsBox);
         dialogPane.getButtonTypes().addAll(ButtonType.CANCEL, ButtonType.OK);
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
@@ -240,14 +268,9 @@ public class EditableTask extends HBox {
                     int expectedMinutes = Integer.parseInt(expectedDurationField.getText());
                     int actualMinutes = Integer.parseInt(actualDurationField.getText());
                     if (expectedMinutes > 0 && actualMinutes >= 0) {
-                        expectedDuration.set(Duration.ofMinutes(expectedMinutes));
-                        actualDuration.set(Duration.ofMinutes(actualMinutes));
-                    }
-                    int newPriority = prioritySpinner.getValue();
-                    if (newPriority != this.priority) {
-                        this.priority = newPriority;
-                        PrioritiesSection.sortByPriority();
+                        TaskModel.setDurations(task.id(), Duration.ofMinutes(expectedMinutes), Duration.ofMinutes(actualMinutes));
                     }
+                    TaskModel.setPriority(task.id(), prioritySpinner.getValue());
                 } catch (Exception ignore) {
                     //ignore in case of any error in parsing text to integer
                 }
@@ -255,28 +278,34 @@ public class EditableTask extends HBox {
         });
     }
 
-    class ClockFace extends Pane {
-        Circle expectedDurationGraphic;
-        Arc actualDurationGraphic;
+    /**
+     * The expected duration as a disc, and the part of it already spent as a sector, drawn on a single canvas.
+     */
+    static class ClockFace extends Canvas {
+        private double shownRatio = -1;
 
         ClockFace(double size) {
-            double radius = size / 2;
-            expectedDurationGraphic = new Circle(radius, radius, radius);
-            expectedDurationGraphic.setFill(Color.GREENYELLOW);
-            expectedDurationGraphic.setStroke(Color.BLACK);
-            actualDurationGraphic = new Arc(radius, radius, radius, radius, 90, 0);
-            actualDurationGraphic.setFill(Color.INDIANRED);
-            actualDurationGraphic.setType(ArcType.ROUND);
-            actualDurationGraphic.setStroke(Color.BLACK);
-            getChildren().addAll(expectedDurationGraphic, actualDurationGraphic);
-            setPrefSize(size, size);
-            update();
+            super(size, size);
         }
 
-        void update() {
-            double durationRatio = Math.min(actualDuration.get().toSeconds() / (double) expectedDuration.get().toSeconds(), 1);
-            Platform.runLater(() ->
-                    actualDurationGraphic.lengthProperty().set(-360 * durationRatio));
+        void draw(Duration expected, Duration actual) {
+            double durationRatio = Math.min(actual.toSeconds() / (double) Math.max(1, expected.toSeconds()), 1);
+            if (durationRatio == shownRatio) {
+                return;
+            }
+            shownRatio = durationRatio;
+            double size = getWidth();
+            GraphicsContext gc = getGraphicsContext2D();
+            gc.clearRect(0, 0, size, size);
+            gc.setStroke(Color.BLACK);
+            gc.setFill(Color.GREENYELLOW);
+            gc.fillOval(0.5, 0.5, size - 1, size - 1);
+            gc.strokeOval(0.5, 0.5, size - 1, size - 1);
+            if (durationRatio > 0) {
+                gc.setFill(Color.INDIANRED);
+                gc.fillArc(0.5, 0.5, size - 1, size - 1, 90, -360 * durationRatio, ArcType.ROUND);
+                gc.strokeArc(0.5, 0.5, size - 1, size - 1, 90, -360 * durationRatio, ArcType.ROUND);
+            }
         }
     }
 }
@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import in.spbhat.EditableTask.EditableTaskStatus;
+import in.spbhat.PlanData.ProjectData;
+import in.spbhat.PlanData.TaskData;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Searchable index over the plans and logs of all the days in the plans directory and its archives.
+ * <p>
+ * The index is saved in the plans directory and updated incrementally:
+ * only the files added or modified since the last update are parsed again.
+ * An inverted index from words to entries is built in memory on loading.
+ * A summary of each day is kept in the index too, updated as the files of the day are indexed.
+ */
+public class HistoryIndex {
+    private static final int VERSION = 2;
+    private static final String indexFileName = "history.idx";
+
+    private final Path plansDir;
+    // file name -> last modified time and size, at the time of indexing
+    private final Map<String, long[]> fileStamps = new HashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<LocalDate, DaySummary> summaries = new HashMap<>();
+    private Map<String, int[]> postings = Map.of();
+
+    /**
+     * A task on a day, either from the plan of the day or from the log of completed tasks.
+     */
+    public record Entry(LocalDate date, String source, EditableTaskStatus status,
+                        String description, String notes, long actualMinutes) {
+    }
+
+    public record DaySummary(LocalDate date, int plannedTasks, int completedTasks,
+                             long actualMinutes, List<String> projects) {
+    }
+
+    /**
+     * @param words          all of these must appear in the description or notes, none to match every entry
+     * @param from           first day, inclusive, or null
+     * @param to             last day, inclusive, or null
+     * @param completedOnly  only the completed tasks
+     */
+    public record Query(String words, LocalDate from, LocalDate to, boolean completedOnly) {
+    }
+
+    public HistoryIndex(Path plansDir) {
+        this.plansDir = plansDir;
+    }
+
+    /**
+     * Loads the saved index and brings it up to date with the files in the plans directory.
+     */
+    public static HistoryIndex load(Path plansDir) throws IOException {
+        HistoryIndex index = new HistoryIndex(plansDir);
+        Path indexFile = plansDir.resolve(indexFileName);
+        if (Files.exists(indexFile)) {
+            try {
+                index.read(indexFile);
+            } catch (IOException e) {
+                System.out.println("Rebuilding history index: " + e.getMessage());
+                index.clear();
+            }
+        }
+        if (index.update()) {
+            PlanWriter.writeAtomically(indexFile, channel -> {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        Channels.newOutputStream(channel)));
+                index.write(out);
+                out.flush();
+            });
+        }
+        index.buildPostings();
+        return index;
+    }
+
+    /**
+     * @return true if any file was (re-)indexed
+     */
+    private boolean update() throws IOException {
+        // file name -> last modified time and size, archived files first so that live ones take precedence
+        Map<String, long[]> files = new HashMap<>();
+        for (PlanArchive.ArchivedFile archived : PlanArchive.list(plansDir)) {
+            files.put(archived.name(), new long[]{archived.lastModifiedMillis(), archived.size()});
+        }
+        try (Stream<Path> list = Files.list(plansDir)) {
+            for (Path file : (Iterable<Path>) list::iterator) {
+                files.put(file.getFileName().toString(),
+                        new long[]{Files.getLastModifiedTime(file).toMillis(), Files.size(file)});
+            }
+        }
+        files.keySet().removeIf(name -> PlanArchive.dateOf(Path.of(name)) == null
+                                        || !(name.endsWith(".dat") || name.endsWith(".log")));
+
+        boolean changed = false;
+        for (var file : files.entrySet()) {
+            String name = file.getKey();
+            long[] stamp = file.getValue();
+            if (Arrays.equals(stamp, fileStamps.get(name))) {
+                continue;
+            }
+            remove(name);
+            try {
+                indexFile(plansDir.resolve(name), name);
+            } catch (Exception e) {
+                System.out.println("Unable to index: " + name + " (" + e + ")");
+            }
+            fileStamps.put(name, stamp);
+            changed = true;
+        }
+        for (String name : List.copyOf(fileStamps.keySet())) {
+            if (!files.containsKey(name)) {
+                remove(name);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private void indexFile(Path file, String name) throws IOException {
+        LocalDate date = PlanArchive.dateOf(file);
+        if (name.endsWith(".dat")) {
+            PlanData plan = PlanCodec.read(file);
+            for (TaskData task : plan.tasks()) {
+                entries.add(new Entry(date, name, task.status(), task.description(), task.notes(),
+                        task.actualDuration().toMinutes()));
+            }
+            List<String> projects = plan.projects().stream()
+                    .map(ProjectData::name)
+                    .filter(projectName -> !projectName.isBlank())
+                    .toList();
+            updateSummary(date, day -> new DaySummary(date, plan.tasks().size(), day.completedTasks(),
+                    day.actualMinutes(), projects));
+        } else {
+            int completed = 0;
+            long minutes = 0;
+            for (LogRecord logRecord : LogRecord.readAll(file)) {
+                entries.add(new Entry(date, name, EditableTaskStatus.COMPLETE, logRecord.description(),
+                        logRecord.notes(), logRecord.actualDuration().toMinutes()));
+                completed++;
+                minutes += logRecord.actualDuration().toMinutes();
+            }
+            int completedTasks = completed;
+            long actualMinutes = minutes;
+            updateSummary(date, day -> new DaySummary(date, day.plannedTasks(), completedTasks, actualMinutes,
+                    day.projects()));
+        }
+    }
+
+    // the plan of a day gives its planned tasks and projects, and the log its completed tasks and time
+    private void updateSummary(LocalDate date, UnaryOperator<DaySummary> update) {
+        DaySummary day = update.apply(summary(date));
+        if (day.plannedTasks() == 0 && day.completedTasks() == 0 && day.projects().isEmpty()) {
+            summaries.remove(date);
+        } else {
+            summaries.put(date, day);
+        }
+    }
+
+    private void remove(String name) {
+        fileStamps.remove(name);
+        entries.removeIf(entry -> entry.source.equals(name));
+        LocalDate date = PlanArchive.dateOf(Path.of(name));
+        if (name.endsWith(".dat")) {
+            updateSummary(date, day -> new DaySummary(date, 0, day.completedTasks(), day.actualMinutes(), List.of()));
+        } else {
+            updateSummary(date, day -> new DaySummary(date, day.plannedTasks(), 0, 0, day.projects()));
+        }
+    }
+
+    private void clear() {
+        fileStamps.clear();
+        entries.clear();
+        summaries.clear();
+    }
+
+    private void buildPostings() {
+        entries.sort(Comparator.comparing(Entry::date));
+        Map<String, List<Integer>> postingLists = new HashMap<>();
+        for (int e = 0; e < entries.size(); e++) {
+            Entry entry = entries.get(e);
+            for (String word : words(entry.description + " " + entry.notes)) {
+                postingLists.computeIfAbsent(word, _ -> new ArrayList<>()).add(e);
+            }
+        }
+        Map<String, int[]> built = new HashMap<>(postingLists.size());
+        postingLists.forEach((word, list) -> built.put(word, list.stream().mapToInt(Integer::intValue).toArray()));
+        postings = built;
+    }
+
+    private static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() > 1) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    public List<Entry> search(Query query) {
+        Set<String> words = words(query.words);
+        int[] matches = null;
+        for (String word : words) {
+            int[] list = postings.getOrDefault(word, new int[0]);
+            matches = matches == null ? list : intersect(matches, list);
+        }
+        List<Entry> result = new ArrayList<>();
+        if (matches == null) {
+            for (Entry entry : entries) {
+                if (accept(query, entry)) result.add(entry);
+            }
+        } else {
+            for (int e : matches) {
+                if (accept(query, entries.get(e))) result.add(entries.get(e));
+            }
+        }
+        return result;
+    }
+
+    private static boolean accept(Query query, Entry entry) {
+        return (query.from == null || !entry.date.isBefore(query.from))
+               && (query.to == null || !entry.date.isAfter(query.to))
+               && (!query.completedOnly || entry.status == EditableTaskStatus.COMPLETE);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * @return the days having a project with the given name (ignoring case), most recent first
+     */
+    public List<DaySummary> daysWithProject(String projectName) {
+        String name = projectName.strip();
+        return summaries.values().stream()
+                .filter(day -> day.projects().stream().anyMatch(project -> project.strip().equalsIgnoreCase(name)))
+                .sorted(Comparator.comparing(DaySummary::date).reversed())
+                .toList();
+    }
+
+    public DaySummary summary(LocalDate date) {
+        return summaries.getOrDefault(date, new DaySummary(date, 0, 0, 0, List.of()));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void read(Path indexFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != VERSION) {
+                throw new IOException("Unsupported history index version");
+            }
+            EditableTaskStatus[] statuses = EditableTaskStatus.values();
+            int numFiles = in.readInt();
+            for (int f = 0; f < numFiles; f++) {
+                fileStamps.put(in.readUTF(), new long[]{in.readLong(), in.readLong()});
+            }
+            int numEntries = in.readInt();
+            for (int e = 0; e < numEntries; e++) {
+                entries.add(new Entry(LocalDate.ofEpochDay(in.readLong()), in.readUTF(), statuses[in.readByte()],
+                        readString(in), readString(in), in.readLong()));
+            }
+            int numDays = in.readInt();
+            for (int d = 0; d < numDays; d++) {
+                LocalDate date = LocalDate.ofEpochDay(in.readLong());
+                int planned = in.readInt();
+                int completed = in.readInt();
+                long minutes = in.readLong();
+                int numProjects = in.readInt();
+                List<String> projects = new ArrayList<>(numProjects);
+                for (int p = 0; p < numProjects; p++) {
+                    projects.add(readString(in));
+                }
+                summaries.put(date, new DaySummary(date, planned, completed, minutes, projects));
+            }
+        } catch (EOFException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt history index", e);
+        }
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+        out.writeInt(VERSION);
+        out.writeInt(fileStamps.size());
+        for (var stamp : fileStamps.entrySet()) {
+            out.writeUTF(stamp.getKey());
+            out.writeLong(stamp.getValue()[0]);
+            out.writeLong(stamp.getValue()[1]);
+        }
+        out.writeInt(entries.size());
+        for (Entry entry : entries) {
+            out.writeLong(entry.date.toEpochDay());
+            out.writeUTF(entry.source);
+            out.writeByte(entry.status.ordinal());
+            writeString(out, entry.description);
+            writeString(out, entry.notes);
+            out.writeLong(entry.actualMinutes);
+        }
+        out.writeInt(summaries.size());
+        for (DaySummary day : summaries.values()) {
+            out.writeLong(day.date().toEpochDay());
+            out.writeInt(day.plannedTasks());
+            out.writeInt(day.completedTasks());
+            out.writeLong(day.actualMinutes());
+            out.writeInt(day.projects().size());
+            for (String project : day.projects()) {
+                writeString(out, project);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(in.readNBytes(in.readInt()), UTF_8);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import in.spbhat.HistoryIndex.DaySummary;
+import in.spbhat.HistoryIndex.Entry;
+import in.spbhat.HistoryIndex.Query;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Window to search the tasks of all the previous days.
+ */
+public class HistorySearch extends Stage {
+    private HistoryIndex index;
+    private final TextField wordsField = new TextField();
+    private final DatePicker fromPicker = new DatePicker();
+    private final DatePicker toPicker = new DatePicker();
+    private final CheckBox completedOnly = new CheckBox("Completed only");
+    private final TextField projectField = new TextField();
+    private final ListView<String> results = new ListView<>();
+    private final Label status = new Label("Updating the history index...");
+
+    public HistorySearch() {
+        wordsField.setPromptText("Words in task or notes");
+        HBox.setHgrow(wordsField, Priority.ALWAYS);
+        fromPicker.setPromptText("From");
+        toPicker.setPromptText("To");
+        Button searchBtn = new Button("Search");
+        searchBtn.setDefaultButton(true);
+        searchBtn.setOnAction(_ -> searchTasks());
+        HBox taskQuery = new HBox(wordsField, fromPicker, toPicker, completedOnly, searchBtn);
+        taskQuery.setSpacing(5);
+        taskQuery.setAlignment(Pos.CENTER_LEFT);
+
+        projectField.setPromptText("Project name");
+        HBox.setHgrow(projectField, Priority.ALWAYS);
+        Button projectBtn = new Button("Days with Project");
+        projectBtn.setOnAction(_ -> searchProject());
+        HBox projectQuery = new HBox(projectField, projectBtn);
+        projectQuery.setSpacing(5);
+
+        VBox.setVgrow(results, Priority.ALWAYS);
+        VBox root = new VBox(taskQuery, projectQuery, results, status);
+        root.setSpacing(5);
+        root.setPadding(new Insets(10));
+        root.setDisable(true);
+
+        setScene(new Scene(root, 900, 600));
+        setTitle("Search History");
+
+        Thread.startVirtualThread(() -> {
+            try {
+                long start = System.nanoTime();
+                HistoryIndex loaded = HistoryIndex.load(Path.of("plans"));
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                Platform.runLater(() -> {
+                    index = loaded;
+                    status.setText("%d tasks indexed in %d ms".formatted(loaded.size(), millis));
+                    root.setDisable(false);
+                    wordsField.requestFocus();
+                });
+            } catch (IOException e) {
+                e.printStackTrace();
+                Platform.runLater(() -> status.setText("Unable to read the history: " + e.getMessage()));
+            }
+        });
+    }
+
+    private void searchTasks() {
+        long start = System.nanoTime();
+        List<Entry> found = index.search(new Query(wordsField.getText(),
+                fromPicker.getValue(), toPicker.getValue(), completedOnly.isSelected()));
+        results.getItems().setAll(found.stream()
+                .map(entry -> "%s  [%s]  %s%s".formatted(entry.date(), entry.status(), entry.description(),
+                        entry.actualMinutes() > 0 ? "  (%d min)".formatted(entry.actualMinutes()) : ""))
+                .toList());
+        showStatus(found.size(), start);
+    }
+
+    private void searchProject() {
+        long start = System.nanoTime();
+        List<DaySummary> days = index.daysWithProject(projectField.getText());
+        results.getItems().setAll(days.stream()
+                .map(day -> "%s  planned: %d, completed: %d, %d min  %s".formatted(day.date(),
+                        day.plannedTasks(), day.completedTasks(), day.actualMinutes(), day.projects()))
+                .toList());
+        showStatus(days.size(), start);
+    }
+
+    private void showStatus(int numResults, long startNanos) {
+        status.setText("%d results in %.1f ms".formatted(numResults, (System.nanoTime() - startNanos) / 1e6));
+    }
+}
@@ -6,10 +6,14 @@
 
 package in.spbhat;
 
+import in.spbhat.EditableTask.EditableTaskStatus;
+import in.spbhat.PlanChange.*;
+import in.spbhat.PlanData.TaskData;
 import in.spbhat.icons.Icon;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Rectangle2D;
+import javafx.scene.CacheHint;
 import javafx.scene.Cursor;
 import javafx.scene.Scene;
 import javafx.scene.control.Label;
@@ -23,13 +27,21 @@ import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.List;
-
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Shows the pomodoro timer and the tasks in process, always on top.
+ * <p>
+ * The tasks are updated when the {@link TaskModel} publishes a change which can affect them, and only the rows
+ * which changed are updated. The content is rendered into a cached bitmap, so it is drawn again only when it changes.
+ */
 public class InfoWidget extends Stage {
     private final Stage primaryStage;
-    private List<String> inProcessTasks = new ArrayList<>();
+    private final Map<Long, Label> inProcessTaskLabels = new HashMap<>(); // on the JavaFX Application Thread
     VBox inProcessTasksView = new VBox();
+    private final UiUpdates.Trigger inProcessTasksChanged = UiUpdates.trigger(this::updateTaskView);
+    private final Consumer<List<PlanChange>> taskChanges = this::tasksChanged;
 
     public InfoWidget(Stage primaryStage) {
         this.primaryStage = primaryStage;
@@ -67,7 +79,12 @@ public class InfoWidget extends Stage {
                     screenBounds.getMinY() + verticalPadding
             );
         }).start();
-        updateInProcessTasksThread();
+        updateTaskView();
+        TaskModel.subscribe(taskChanges);
+        setOnHidden(_ -> TaskModel.unsubscribe(taskChanges));
+        primaryStage.showingProperty().addListener((_, _, showing) -> {
+            if (!showing) close();
+        });
     }
 
     private void moveWidgetToLocation(double x, double y) {
@@ -94,6 +111,10 @@ public class InfoWidget extends Stage {
                 new CornerRadii(10),
                 BorderStroke.MEDIUM)));
         root.setEffect(new DropShadow(5, Color.WHITE));
+        // drawn again only when the timer or the tasks change, and the tasks not when only the timer does
+        root.setCache(true);
+        root.setCacheHint(CacheHint.QUALITY);
+        inProcessTasksView.setCache(true);
         return root;
     }
 
@@ -128,40 +149,46 @@ public class InfoWidget extends Stage {
         }
     }
 
-    private void updateInProcessTasksThread() {
-        Thread.startVirtualThread(() -> {
-            while (this.isShowing() && primaryStage.isShowing()) {
-                updateTaskView();
-                Platform.runLater(this::sizeToScene);
-                Planner.sleepFor(Duration.ofSeconds(5));
-            }
-            Platform.runLater(this::close);
-        });
+    // called holding the TaskModel lock
+    private void tasksChanged(List<PlanChange> changes) {
+        if (changes.stream().anyMatch(InfoWidget::mayChangeInProcessTasks)) {
+            inProcessTasksChanged.request();
+        }
     }
 
-    private boolean updateInProcessTasks() {
-        List<String> currentInProcessTasks = PrioritiesSection.prioritiesTaskList.stream()
-                .filter(node -> node instanceof EditableTask t && t.taskCompleted.isIndeterminate())
-                .map(task -> ((EditableTask) task).taskField.getText())
-                .toList();
-        if (inProcessTasks.equals(currentInProcessTasks)) {
-            return false;
-        } else {
-            inProcessTasks = currentInProcessTasks;
-            return true;
-        }
+    private static boolean mayChangeInProcessTasks(PlanChange change) {
+        return switch (change) {
+            case TaskAdded(TaskData task) -> task.status() == EditableTaskStatus.IN_PROCESS;
+            case TaskStatusChanged _, TaskTextChanged _, TaskRemoved _ -> true;
+            default -> false;
+        };
     }
 
+    // updates, adds and removes only the rows of the tasks which changed
     private void updateTaskView() {
-        if (!updateInProcessTasks()) return;
-        Platform.runLater(() -> {
-            inProcessTasksView.getChildren().clear();
-            inProcessTasksView.getChildren().addAll(
-                    inProcessTasks.stream()
-                            .map(task -> new Label(" ➤ " + limitTo50Chars(task)))
-                            .toList());
+        List<TaskData> inProcessTasks = TaskModel.tasks(EditableTaskStatus.IN_PROCESS);
+        Set<Long> inProcessIds = new HashSet<>();
+        inProcessTasks.forEach(task -> inProcessIds.add(task.id()));
+        boolean resized = inProcessTaskLabels.keySet().retainAll(inProcessIds);
+        inProcessTasksView.getChildren().retainAll(inProcessTaskLabels.values());
+        // the rows kept are in the order of the tasks, as the tasks are not reordered
+        for (int row = 0; row < inProcessTasks.size(); row++) {
+            TaskData task = inProcessTasks.get(row);
+            String text = " ➤ " + limitTo50Chars(task.description());
+            Label label = inProcessTaskLabels.get(task.id());
+            if (label == null) {
+                label = new Label(text);
+                inProcessTaskLabels.put(task.id(), label);
+                inProcessTasksView.getChildren().add(row, label);
+                resized = true;
+            } else if (!label.getText().equals(text)) {
+                label.setText(text);
+                resized = true;
+            }
+        }
+        if (resized) {
             sizeToScene();
-        });
+        }
     }
 
     private String limitTo50Chars(String str) {
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Records when the time of the tasks was spent, in an append-only file per day, {@code plans/<date>.intervals}.
+ * <p>
+ * Each interval the {@link TimeTracker} tracked a task for is a fixed size record of {@value #INTERVAL_SIZE}
+ * bytes: the task id, and the start and length of the interval in seconds. The description of a task is
+ * written once in the file, before its first interval (and again if it was changed), as the ids of the
+ * removed tasks can be given to new tasks on another day.
+ * The intervals of a range of days are loaded into an {@link IntervalTree} by {@link #load(LocalDate, LocalDate)}.
+ * The intervals read are kept, and the tree of the days loaded so far is built again only when a file changed
+ * (usually today's), so the queries on it take logarithmic time. As an interval is written in the file of
+ * the day it started, soon after it ended, the files of the days before yesterday are no longer written:
+ * a day read after that is not checked for changes again.
+ */
+public class IntervalLedger {
+    private static final int MAGIC = 0x50494E54; // "PINT"
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 5;
+    private static final byte INTERVAL = 1, NAME = 2;
+    private static final int INTERVAL_SIZE = 21;
+
+    private static final Path plansDir = Path.of("plans");
+    // the task descriptions written in the files of this run, on the writer thread
+    private static final Map<LocalDate, Map<Long, String>> namesWritten = new HashMap<>();
+    // the intervals of the days read, and the tree of the days loaded, guarded by the class
+    private static final Map<LocalDate, ReadDay> readDays = new HashMap<>();
+    private static final Set<LocalDate> daysBeingWritten = new TreeSet<>(); // when they were read
+    private static LocalDate loadedFrom, loadedTo;
+    private static IntervalTree loaded;
+
+    /**
+     * The joined intervals of a day, and the last modified time and size of its file when they were read
+     * (-1 if it was not in the plans directory).
+     */
+    private record ReadDay(long modifiedMillis, long size, List<WorkInterval> intervals) {
+    }
+
+    /**
+     * Time spent on a task.
+     */
+    public record WorkInterval(long taskId, String task, Instant start, Instant end) {
+        public Duration duration() {
+            return Duration.between(start, end);
+        }
+
+        /**
+         * @return the part of the interval between the two instants
+         */
+        public Duration overlap(Instant from, Instant to) {
+            Instant overlapStart = start.isAfter(from) ? start : from;
+            Instant overlapEnd = end.isBefore(to) ? end : to;
+            return overlapEnd.isAfter(overlapStart) ? Duration.between(overlapStart, overlapEnd) : Duration.ZERO;
+        }
+    }
+
+    /**
+     * Records the interval on the writer thread. The times are recorded in whole seconds,
+     * an interval within a second is not recorded.
+     */
+    public static CompletableFuture<Void> record(long taskId, String task, Instant start, Instant end) {
+        if (end.getEpochSecond() <= start.getEpochSecond()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return PlanWriter.submit(() -> {
+            append(new WorkInterval(taskId, task, start, end));
+            return null;
+        });
+    }
+
+    /**
+     * @return the intervals recorded on the day, in the order they ended
+     */
+    public static List<WorkInterval> read(LocalDate date) throws IOException {
+        List<WorkInterval> intervals = new ArrayList<>();
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(PlanArchive.readAllBytes(intervalsFile(date)));
+        } catch (NoSuchFileException e) {
+            return intervals;
+        }
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Not an intervals file: " + intervalsFile(date));
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported intervals file version: " + version);
+        }
+        Map<Long, String> names = new HashMap<>();
+        while (buffer.hasRemaining()) { // an incomplete last record is ignored
+            byte kind = buffer.get();
+            if (kind == INTERVAL && buffer.remaining() >= INTERVAL_SIZE - 1) {
+                long taskId = buffer.getLong();
+                long start = buffer.getLong();
+                long seconds = buffer.getInt() & 0xFFFFFFFFL;
+                intervals.add(new WorkInterval(taskId, names.getOrDefault(taskId, "Task " + taskId),
+                        Instant.ofEpochSecond(start), Instant.ofEpochSecond(start + seconds)));
+            } else if (kind == NAME && buffer.remaining() >= Long.BYTES + Short.BYTES) {
+                long taskId = buffer.getLong();
+                int length = buffer.getShort() & 0xFFFF;
+                if (buffer.remaining() < length) break;
+                byte[] name = new byte[length];
+                buffer.get(name);
+                names.put(taskId, new String(name, UTF_8));
+            } else {
+                break;
+            }
+        }
+        return intervals;
+    }
+
+    /**
+     * Loads the intervals which started on the days from the day before {@code from}
+     * (so the ones running over midnight are found) to {@code to}.
+     *
+     * @return the tree of the days loaded so far, which include the given ones
+     */
+    public static synchronized IntervalTree load(LocalDate from, LocalDate to) throws IOException {
+        boolean changed = false;
+        if (loaded == null) {
+            loadedFrom = from;
+            loadedTo = to;
+            changed = readIfChanged(from.minusDays(1), to);
+        } else { // the days not loaded yet
+            if (from.isBefore(loadedFrom)) {
+                changed = readIfChanged(from.minusDays(1), loadedFrom.minusDays(2));
+                loadedFrom = from;
+            }
+            if (to.isAfter(loadedTo)) {
+                changed |= readIfChanged(loadedTo.plusDays(1), to);
+                loadedTo = to;
+            }
+        }
+        // the days loaded earlier, which may have been written since
+        LocalDate first = loadedFrom.minusDays(1);
+        for (LocalDate date : List.copyOf(daysBeingWritten)) {
+            if (!date.isBefore(first) && !date.isAfter(loadedTo)) changed |= readIfChanged(date);
+        }
+        if (changed || loaded == null) {
+            List<WorkInterval> intervals = new ArrayList<>();
+            for (LocalDate date = first; !date.isAfter(loadedTo); date = date.plusDays(1)) {
+                intervals.addAll(readDays.get(date).intervals());
+            }
+            loaded = new IntervalTree(intervals);
+        }
+        return loaded;
+    }
+
+    /**
+     * @return true if the intervals of any of the days were read
+     */
+    private static boolean readIfChanged(LocalDate first, LocalDate last) throws IOException {
+        boolean changed = false;
+        for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+            changed |= readIfChanged(date);
+        }
+        return changed;
+    }
+
+    /**
+     * Reads the intervals of the day, unless its file has not changed since it was read.
+     *
+     * @return true if the intervals were read
+     */
+    private static boolean readIfChanged(LocalDate date) throws IOException {
+        Path file = intervalsFile(date);
+        ReadDay day = readDays.get(date);
+        long modifiedMillis = -1, size = -1;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            modifiedMillis = attributes.lastModifiedTime().toMillis();
+            size = attributes.size();
+        } catch (NoSuchFileException e) {
+            // archived, or no time recorded on the day
+        }
+        if (day != null && day.modifiedMillis() == modifiedMillis && day.size() == size) {
+            return false;
+        }
+        readDays.put(date, new ReadDay(modifiedMillis, size, IntervalTree.joined(read(date))));
+        if (date.isBefore(LocalDate.now().minusDays(1))) {
+            daysBeingWritten.remove(date);
+        } else {
+            daysBeingWritten.add(date);
+        }
+        return true;
+    }
+
+    private static Path intervalsFile(LocalDate date) {
+        return plansDir.resolve(date.format(Planner.dateFormatter) + ".intervals");
+    }
+
+    // on the writer thread
+    private static synchronized void append(WorkInterval interval) throws IOException {
+        LocalDate date = LocalDate.ofInstant(interval.start(), ZoneId.systemDefault());
+        Path file = intervalsFile(date);
+        Files.createDirectories(file.getParent());
+        Map<Long, String> names = namesWritten.computeIfAbsent(date, _ -> new HashMap<>());
+        byte[] name = interval.task().getBytes(UTF_8);
+        int nameLength = Math.min(name.length, 0xFFFF);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 1 + Long.BYTES + Short.BYTES + nameLength
+                                                    + INTERVAL_SIZE);
+            if (channel.size() == 0) {
+                buffer.putInt(MAGIC).put(VERSION);
+            }
+            if (!interval.task().equals(names.get(interval.taskId()))) {
+                buffer.put(NAME).putLong(interval.taskId()).putShort((short) nameLength).put(name, 0, nameLength);
+            }
+            long start = interval.start().getEpochSecond();
+            buffer.put(INTERVAL)
+                    .putLong(interval.taskId())
+                    .putLong(start)
+                    .putInt((int) Math.min(interval.end().getEpochSecond() - start, 0xFFFFFFFFL))
+                    .flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        names.put(interval.taskId(), interval.task());
+    }
+}
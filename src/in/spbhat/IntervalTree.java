@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import in.spbhat.IntervalLedger.WorkInterval;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * The work intervals of a range of days, for finding the intervals at an instant or between two instants.
+ * <p>
+ * The intervals are sorted by their start, and the sorted array is a balanced binary search tree (the middle
+ * of each range is its root) in which each node also keeps the latest end in its subtree. A query skips
+ * the subtrees ending before it and the ones starting after it, so it takes logarithmic time plus the
+ * number of intervals found.
+ */
+public class IntervalTree {
+    private final WorkInterval[] intervals;
+    private final long[] starts, ends; // epoch seconds
+    private final long[] maxEnds; // latest end in the subtree of each node
+
+    /**
+     * The consecutive intervals of a task (recorded in parts while it was tracked) are joined.
+     */
+    public IntervalTree(Collection<WorkInterval> workIntervals) {
+        intervals = joined(workIntervals).toArray(WorkInterval[]::new);
+        starts = new long[intervals.length];
+        ends = new long[intervals.length];
+        for (int i = 0; i < intervals.length; i++) {
+            starts[i] = intervals[i].start().getEpochSecond();
+            ends[i] = intervals[i].end().getEpochSecond();
+        }
+        maxEnds = new long[intervals.length];
+        computeMaxEnds(0, intervals.length - 1);
+    }
+
+    /**
+     * @return the intervals sorted by their start, with the consecutive intervals of a task joined
+     */
+    static List<WorkInterval> joined(Collection<WorkInterval> workIntervals) {
+        List<WorkInterval> sorted = new ArrayList<>(workIntervals);
+        sorted.sort(Comparator.comparing(WorkInterval::start).thenComparing(WorkInterval::end));
+        List<WorkInterval> joined = new ArrayList<>(sorted.size());
+        Map<Long, Integer> lastOfTask = new HashMap<>();
+        for (WorkInterval interval : sorted) {
+            Integer last = lastOfTask.get(interval.taskId());
+            WorkInterval previous = last == null ? null : joined.get(last);
+            if (previous != null && previous.end().equals(interval.start()) && previous.task().equals(interval.task())) {
+                joined.set(last, new WorkInterval(previous.taskId(), previous.task(), previous.start(), interval.end()));
+            } else {
+                lastOfTask.put(interval.taskId(), joined.size());
+                joined.add(interval);
+            }
+        }
+        return joined;
+    }
+
+    private long computeMaxEnds(int low, int high) {
+        if (low > high) {
+            return Long.MIN_VALUE;
+        }
+        int middle = (low + high) >>> 1;
+        maxEnds[middle] = Math.max(ends[middle], Math.max(computeMaxEnds(low, middle - 1),
+                computeMaxEnds(middle + 1, high)));
+        return maxEnds[middle];
+    }
+
+    public int size() {
+        return intervals.length;
+    }
+
+    /**
+     * @return the intervals running at the instant (more than one if several tasks were in process)
+     */
+    public List<WorkInterval> at(Instant instant) {
+        return overlapping(instant, instant.plusSeconds(1));
+    }
+
+    /**
+     * @return the intervals overlapping the time from {@code from} (inclusive) to {@code to} (exclusive),
+     * in the order they started
+     */
+    public List<WorkInterval> overlapping(Instant from, Instant to) {
+        List<WorkInterval> found = new ArrayList<>();
+        collect(0, intervals.length - 1, from.getEpochSecond(), to.getEpochSecond(), found);
+        return found;
+    }
+
+    /**
+     * @return the time spent on each task between the two instants, the most first
+     */
+    public Map<String, Duration> timePerTask(Instant from, Instant to) {
+        Map<String, Duration> times = new HashMap<>();
+        for (WorkInterval interval : overlapping(from, to)) {
+            times.merge(interval.task(), interval.overlap(from, to), Duration::plus);
+        }
+        Map<String, Duration> sorted = new LinkedHashMap<>();
+        times.entrySet().stream()
+                .sorted(Map.Entry.<String, Duration>comparingByValue().reversed())
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    private void collect(int low, int high, long from, long to, List<WorkInterval> found) {
+        if (low > high) {
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        if (maxEnds[middle] <= from) { // all of this subtree ended before
+            return;
+        }
+        collect(low, middle - 1, from, to, found);
+        if (starts[middle] < to) { // else the later ones start after too
+            if (ends[middle] > from) found.add(intervals[middle]);
+            collect(middle + 1, high, from, to, found);
+        }
+    }
+}
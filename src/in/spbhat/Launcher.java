@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import javafx.application.Application;
+
+import java.io.IOException;
+
+/**
+ * Main class of the jar. Starts the planner, or the {@link PlannerDaemon} without the UI if asked by the arguments.
+ * <p>
+ * Not an {@link Application} itself: the java launcher starts JavaFX before calling the main method
+ * of an application class, even if the UI is never shown.
+ */
+public class Launcher {
+    public static void main(String[] args) throws IOException {
+        if (PlannerDaemon.handles(args)) {
+            return;
+        }
+        Application.launch(Planner.class, args);
+    }
+}
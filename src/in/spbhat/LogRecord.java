@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A completed task in the log of the day.
+ * <p>
+ * The log has one record per line, as a JSON object (JSON Lines), for example:
+ * <pre>
+ * {"time":"2026-10-18T10:15:30","task":"Review","actualSeconds":1500,"expectedSeconds":1800,"priority":2,"notes":""}
+ * </pre>
+ * The free-form text written by the earlier versions is also read, see {@link #read(BufferedReader, Consumer)}.
+ */
+public record LogRecord(LocalDateTime time, String description, Duration actualDuration,
+                        Duration expectedDuration, int priority, String notes) {
+    private static final DateTimeFormatter legacyTimeFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Pattern legacyLogLine = Pattern.compile(
+            "^(\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}) : Completed '(.*)' in (\\d+)h:(\\d+)m:(\\d+)s$");
+
+    public LogRecord {
+        description = description == null ? "" : description;
+        notes = notes == null ? "" : notes;
+        actualDuration = actualDuration == null ? Duration.ZERO : actualDuration;
+        expectedDuration = expectedDuration == null ? Duration.ZERO : expectedDuration;
+    }
+
+    public static LogRecord of(PlanData.TaskData task) {
+        return new LogRecord(LocalDateTime.now().withNano(0), task.description(),
+                task.actualDuration(), task.expectedDuration(), task.priority(), task.notes());
+    }
+
+    /**
+     * @return the record as a single line of JSON, without the line separator
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(128 + description.length() + notes.length());
+        json.append("{\"time\":\"").append(time).append('"');
+        json.append(",\"task\":");
+        appendString(json, description);
+        json.append(",\"actualSeconds\":").append(actualDuration.toSeconds());
+        json.append(",\"expectedSeconds\":").append(expectedDuration.toSeconds());
+        json.append(",\"priority\":").append(priority);
+        json.append(",\"notes\":");
+        appendString(json, notes);
+        return json.append('}').toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the line is not a log record
+     */
+    public static LogRecord fromJson(String line) {
+        Map<String, Object> fields = new JsonLine(line).readObject();
+        try {
+            return new LogRecord(LocalDateTime.parse((String) fields.get("time")),
+                    (String) fields.get("task"),
+                    Duration.ofSeconds(number(fields.get("actualSeconds"))),
+                    Duration.ofSeconds(number(fields.get("expectedSeconds"))),
+                    (int) number(fields.get("priority")),
+                    (String) fields.get("notes"));
+        } catch (ClassCastException | NullPointerException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Not a log record: " + line, e);
+        }
+    }
+
+    private static long number(Object value) {
+        return value == null ? 0 : (Long) value;
+    }
+
+    /**
+     * Reads all the records of the log file, or of the archived log file.
+     */
+    public static List<LogRecord> readAll(Path logFile) throws IOException {
+        List<LogRecord> records = new ArrayList<>();
+        try (BufferedReader reader = PlanArchive.newBufferedReader(logFile)) {
+            read(reader, records::add);
+        }
+        return records;
+    }
+
+    /**
+     * Reads the records one by one, without keeping the whole log in memory.
+     * <p>
+     * Lines starting with '{' are JSON records. Other lines are in the text format of the earlier versions:
+     * a "{@code yyyy-MM-dd HH:mm:ss : Completed '<task>' in 00h:00m:00s}" line followed by the indented notes.
+     * Both can appear in the same file, when the log of the day was started by an earlier version.
+     * Lines that can not be read are skipped.
+     */
+    public static void read(BufferedReader reader, Consumer<LogRecord> consumer) throws IOException {
+        LegacyRecord legacy = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith("{")) {
+                if (legacy != null) {
+                    consumer.accept(legacy.build());
+                    legacy = null;
+                }
+                try {
+                    consumer.accept(fromJson(line));
+                } catch (IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                }
+                continue;
+            }
+            Matcher matcher = legacyLogLine.matcher(line);
+            if (matcher.matches()) {
+                if (legacy != null) {
+                    consumer.accept(legacy.build());
+                }
+                legacy = new LegacyRecord(LocalDateTime.parse(matcher.group(1), legacyTimeFormat), matcher.group(2),
+                        Duration.ofHours(Long.parseLong(matcher.group(3)))
+                                .plusMinutes(Long.parseLong(matcher.group(4)))
+                                .plusSeconds(Long.parseLong(matcher.group(5))),
+                        new StringBuilder());
+            } else if (legacy != null && !line.strip().equals("Notes:")) {
+                legacy.notes.append(line.strip()).append('\n');
+            }
+        }
+        if (legacy != null) {
+            consumer.accept(legacy.build());
+        }
+    }
+
+    private record LegacyRecord(LocalDateTime time, String description, Duration actualDuration, StringBuilder notes) {
+        LogRecord build() {
+            // the earlier versions did not log the expected duration and the priority
+            return new LogRecord(time, description, actualDuration, Duration.ZERO, 0, notes.toString().stripTrailing());
+        }
+    }
+
+    private static void appendString(StringBuilder json, String str) {
+        json.append('"');
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) json.append("\\u%04x".formatted((int) c));
+                    else json.append(c);
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Reads the flat JSON objects of the log, having only string and integer values.
+     */
+    private static class JsonLine {
+        private final String line;
+        private int pos;
+
+        JsonLine(String line) {
+            this.line = line;
+        }
+
+        Map<String, Object> readObject() {
+            Map<String, Object> fields = new HashMap<>();
+            expect('{');
+            skipSpaces();
+            if (peek() == '}') {
+                pos++;
+                return fields;
+            }
+            do {
+                skipSpaces();
+                String key = readString();
+                skipSpaces();
+                expect(':');
+                skipSpaces();
+                fields.put(key, peek() == '"' ? readString() : readNumber());
+                skipSpaces();
+            } while (next() == ',');
+            if (line.charAt(pos - 1) != '}') {
+                throw error();
+            }
+            return fields;
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder str = new StringBuilder();
+            char c;
+            while ((c = next()) != '"') {
+                if (c != '\\') {
+                    str.append(c);
+                    continue;
+                }
+                switch (next()) {
+                    case 'n' -> str.append('\n');
+                    case 'r' -> str.append('\r');
+                    case 't' -> str.append('\t');
+                    case 'b' -> str.append('\b');
+                    case 'f' -> str.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > line.length()) throw error();
+                        str.append((char) Integer.parseInt(line, pos, pos + 4, 16));
+                        pos += 4;
+                    }
+                    case '"', '\\', '/' -> str.append(line.charAt(pos - 1));
+                    default -> throw error();
+                }
+            }
+            return str.toString();
+        }
+
+        private Long readNumber() {
+            int start = pos;
+            if (peek() == '-') pos++;
+            while (pos < line.length() && Character.isDigit(line.charAt(pos))) pos++;
+            try {
+                return Long.parseLong(line, start, pos, 10);
+            } catch (NumberFormatException e) {
+                throw error();
+            }
+        }
+
+        private void skipSpaces() {
+            while (pos < line.length() && Character.isWhitespace(line.charAt(pos))) pos++;
+        }
+
+        private char peek() {
+            if (pos >= line.length()) throw error();
+            return line.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) throw error();
+        }
+
+        private IllegalArgumentException error() {
+            return new IllegalArgumentException("Not a log record, at %d: %s".formatted(pos, line));
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Window showing the completed tasks of a log file.
+ * <p>
+ * The file is read on a background thread and the records are added to the list in batches as they are read,
+ * so the window opens immediately even for a large log. Only the visible rows of the list are rendered.
+ */
+public class LogViewer extends Stage {
+    private static final int batchSize = 256;
+
+    private final ObservableList<LogRecord> records = FXCollections.observableArrayList();
+    private final FilteredList<LogRecord> filteredRecords = new FilteredList<>(records);
+    private final TextField filterField = new TextField();
+    private final TextArea notesArea = new TextArea();
+    private final Label status = new Label();
+    private volatile Path loadingFile;
+
+    public LogViewer(Path logFile) {
+        filterField.setPromptText("Filter by task or notes");
+        filterField.textProperty().addListener((_, _, _) -> applyFilter());
+        HBox.setHgrow(filterField, Priority.ALWAYS);
+        Button openBtn = new Button("Open...");
+        openBtn.setOnAction(_ -> openLog());
+        HBox toolBar = new HBox(filterField, openBtn);
+        toolBar.setSpacing(5);
+        toolBar.setAlignment(Pos.CENTER_LEFT);
+
+        ListView<LogRecord> recordList = new ListView<>(filteredRecords);
+        recordList.setCellFactory(_ -> new LogRecordCell());
+        recordList.getSelectionModel().selectedItemProperty().addListener((_, _, selected) ->
+                notesArea.setText(selected == null ? "" : selected.notes()));
+        VBox.setVgrow(recordList, Priority.ALWAYS);
+
+        notesArea.setEditable(false);
+        notesArea.setWrapText(true);
+        notesArea.setPrefRowCount(6);
+        notesArea.setPromptText("Notes of the selected task");
+
+        VBox root = new VBox(toolBar, recordList, notesArea, status);
+        root.setSpacing(5);
+        root.setPadding(new Insets(10));
+
+        setScene(new Scene(root, 900, 600));
+        setOnHidden(_ -> loadingFile = null); // stops the loading
+        load(logFile);
+    }
+
+    private void openLog() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Open Log");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Log of completed tasks", "*.log"));
+        File plansDir = new File("plans");
+        if (plansDir.isDirectory()) {
+            chooser.setInitialDirectory(plansDir);
+        }
+        File file = chooser.showOpenDialog(this);
+        if (file != null) {
+            load(file.toPath());
+        }
+    }
+
+    private void load(Path logFile) {
+        setTitle("Log of completed tasks - " + logFile.getFileName());
+        records.clear();
+        notesArea.clear();
+        status.setText("Reading...");
+        loadingFile = logFile;
+        Thread.startVirtualThread(() -> {
+            List<LogRecord> batch = new ArrayList<>(batchSize);
+            try (BufferedReader reader = PlanArchive.newBufferedReader(logFile)) {
+                LogRecord.read(reader, logRecord -> {
+                    if (loadingFile != logFile) {
+                        throw new CancellationException();
+                    }
+                    batch.add(logRecord);
+                    if (batch.size() == batchSize) {
+                        addBatch(logFile, List.copyOf(batch), false);
+                        batch.clear();
+                    }
+                });
+                addBatch(logFile, List.copyOf(batch), true);
+            } catch (CancellationException ignore) {
+            } catch (NoSuchFileException e) {
+                showStatus(logFile, "Log file not found. Probably no task is completed so far.");
+            } catch (IOException e) {
+                e.printStackTrace();
+                showStatus(logFile, "Unable to read the log: " + e.getMessage());
+            }
+        });
+    }
+
+    private void addBatch(Path logFile, List<LogRecord> batch, boolean last) {
+        Platform.runLater(() -> {
+            if (loadingFile != logFile) {
+                return;
+            }
+            records.addAll(batch);
+            updateStatus(last);
+        });
+    }
+
+    private void showStatus(Path logFile, String message) {
+        Platform.runLater(() -> {
+            if (loadingFile == logFile) status.setText(message);
+        });
+    }
+
+    private void applyFilter() {
+        String filter = filterField.getText().strip().toLowerCase(Locale.ROOT);
+        filteredRecords.setPredicate(filter.isEmpty() ? null : logRecord ->
+                logRecord.description().toLowerCase(Locale.ROOT).contains(filter)
+                || logRecord.notes().toLowerCase(Locale.ROOT).contains(filter));
+        updateStatus(!status.getText().startsWith("Reading"));
+    }
+
+    private void updateStatus(boolean complete) {
+        Duration total = Duration.ZERO;
+        for (LogRecord logRecord : filteredRecords) {
+            total = total.plus(logRecord.actualDuration());
+        }
+        status.setText("%s%d of %d tasks, %s in total".formatted(complete ? "" : "Reading... ",
+                filteredRecords.size(), records.size(), format(total)));
+    }
+
+    private static String format(Duration duration) {
+        return "%02dh:%02dm".formatted(duration.toHours(), duration.toMinutesPart());
+    }
+
+    private static class CancellationException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        CancellationException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static class LogRecordCell extends ListCell<LogRecord> {
+        @Override
+        protected void updateItem(LogRecord logRecord, boolean empty) {
+            super.updateItem(logRecord, empty);
+            if (empty || logRecord == null) {
+                setText(null);
+                return;
+            }
+            setText("%s  %s  in %s%s%s%s".formatted(
+                    logRecord.time().toLocalTime(), logRecord.description(), format(logRecord.actualDuration()),
+                    logRecord.expectedDuration().isZero() ? "" : " of " + format(logRecord.expectedDuration()),
+                    logRecord.priority() > 0 ? "  [P%d]".formatted(logRecord.priority()) : "",
+                    logRecord.notes().isBlank() ? "" : "  (notes)"));
+        }
+    }
+}
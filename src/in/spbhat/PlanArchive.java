@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Monthly archives of the old files in the plans directory.
+ * <p>
+ * The files of a past month are moved into {@code plans/archive/yyyy-MM.zip}.
+ * The central directory of the ZIP file is the index of the archive: reading a single file
+ * from it needs one seek and one decompression, and the opened archives are cached.
+ * Files that are not in the plans directory are looked up in the archive of their month
+ * by {@link #exists(Path)}, {@link #readAllBytes(Path)} and {@link #newBufferedReader(Path)},
+ * so the archived days are read by the same code as the recent ones.
+ */
+public class PlanArchive {
+    private static final int keepLiveDays = 7;
+    private static final List<String> archivedExtensions = List.of(".dat", ".log", ".png", ".journal", ".unsaved",
+            ".sessions", ".intervals");
+    private static final Map<Path, ZipFile> openArchives = new HashMap<>();
+
+    /**
+     * A file in an archive.
+     */
+    public record ArchivedFile(String name, long lastModifiedMillis, long size) {
+    }
+
+    public record Summary(int months, int files, long bytesBefore, long bytesAfter) {
+    }
+
+    public static Path archiveFile(Path plansDir, YearMonth month) {
+        return plansDir.resolve("archive").resolve(month + ".zip");
+    }
+
+    /**
+     * @return the date of a file named after the day, like {@code 2026-10-18.dat}, null for other files
+     */
+    public static LocalDate dateOf(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        try {
+            return dot < 0 ? null : LocalDate.parse(name.substring(0, dot), Planner.dateFormatter);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the file exists, either in its directory or in the archive
+     */
+    public static boolean exists(Path file) throws IOException {
+        return Files.exists(file) || archivedEntry(file) != null;
+    }
+
+    /**
+     * Reads the file from its directory, or from the archive if it is not there.
+     *
+     * @throws NoSuchFileException if it is in neither
+     */
+    public static byte[] readAllBytes(Path file) throws IOException {
+        if (Files.exists(file)) {
+            return Files.readAllBytes(file);
+        }
+        synchronized (PlanArchive.class) {
+            ZipEntry entry = archivedEntry(file);
+            if (entry == null) {
+                throw new NoSuchFileException(file.toString());
+            }
+            try (InputStream in = openArchive(file).getInputStream(entry)) {
+                return in.readAllBytes();
+            }
+        }
+    }
+
+    public static BufferedReader newBufferedReader(Path file) throws IOException {
+        if (Files.exists(file)) {
+            return Files.newBufferedReader(file);
+        }
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(readAllBytes(file)), UTF_8));
+    }
+
+    /**
+     * @return all the files in the archives of the plans directory
+     */
+    public static List<ArchivedFile> list(Path plansDir) throws IOException {
+        Path archiveDir = plansDir.resolve("archive");
+        if (!Files.isDirectory(archiveDir)) {
+            return List.of();
+        }
+        List<Path> archives;
+        try (Stream<Path> files = Files.list(archiveDir)) {
+            archives = files.filter(file -> file.toString().endsWith(".zip")).sorted().toList();
+        }
+        List<ArchivedFile> archived = new ArrayList<>();
+        synchronized (PlanArchive.class) {
+            for (Path archive : archives) {
+                ZipFile zip = openArchives.computeIfAbsent(archive.toAbsolutePath(), PlanArchive::openZip);
+                if (zip == null) {
+                    continue;
+                }
+                zip.stream().forEach(entry -> archived.add(new ArchivedFile(entry.getName(),
+                        entry.getLastModifiedTime().toMillis(), entry.getSize())));
+            }
+        }
+        return archived;
+    }
+
+    private static synchronized ZipEntry archivedEntry(Path file) {
+        LocalDate date = dateOf(file);
+        if (date == null || file.getParent() == null) {
+            return null;
+        }
+        ZipFile zip = openArchive(file);
+        return zip == null ? null : zip.getEntry(file.getFileName().toString());
+    }
+
+    private static ZipFile openArchive(Path file) {
+        Path archive = archiveFile(file.getParent(), YearMonth.from(dateOf(file))).toAbsolutePath();
+        ZipFile zip = openArchives.get(archive);
+        if (zip == null && Files.exists(archive)) {
+            zip = openZip(archive);
+            openArchives.put(archive, zip);
+        }
+        return zip;
+    }
+
+    private static ZipFile openZip(Path archive) {
+        try {
+            return new ZipFile(archive.toFile());
+        } catch (IOException e) {
+            System.out.println("Unable to open archive: " + archive + " (" + e + ")");
+            return null;
+        }
+    }
+
+    private static synchronized void closeArchive(Path archive) {
+        ZipFile zip = openArchives.remove(archive.toAbsolutePath());
+        try {
+            if (zip != null) zip.close();
+        } catch (IOException ignore) {
+        }
+    }
+
+    /**
+     * Moves the files of the months which ended more than a week before the given day into the archives.
+     * Journals left over from a day are folded into the plan of that day.
+     * The files are deleted only after the archive is written and read back.
+     */
+    public static Summary archiveOldMonths(Path plansDir, LocalDate today) throws IOException {
+        LocalDate cutoff = today.minusDays(keepLiveDays);
+        Map<YearMonth, List<Path>> filesByMonth = new TreeMap<>();
+        try (Stream<Path> files = Files.list(plansDir)) {
+            files.filter(file -> archivedExtensions.stream().anyMatch(file.toString()::endsWith))
+                    .filter(file -> dateOf(file) != null)
+                    .filter(file -> YearMonth.from(dateOf(file)).atEndOfMonth().isBefore(cutoff))
+                    .sorted()
+                    .forEach(file -> filesByMonth.computeIfAbsent(YearMonth.from(dateOf(file)),
+                            _ -> new ArrayList<>()).add(file));
+        }
+        int months = 0, numFiles = 0;
+        long bytesBefore = 0, bytesAfter = 0;
+        for (var month : filesByMonth.entrySet()) {
+            Path archive = archiveFile(plansDir, month.getKey());
+            long archiveSizeBefore = Files.exists(archive) ? Files.size(archive) : 0;
+            for (Path file : month.getValue()) {
+                bytesBefore += Files.size(file);
+            }
+            archiveMonth(archive, month.getValue());
+            bytesAfter += Files.size(archive) - archiveSizeBefore;
+            months++;
+            numFiles += month.getValue().size();
+        }
+        return new Summary(months, numFiles, bytesBefore, bytesAfter);
+    }
+
+    private static void archiveMonth(Path archive, List<Path> files) throws IOException {
+        // name -> content of the files to add
+        Map<String, byte[]> added = new TreeMap<>();
+        Map<String, FileTime> modified = new HashMap<>();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(".journal") || name.endsWith(".unsaved")) {
+                continue;
+            }
+            added.put(name, Files.readAllBytes(file));
+            modified.put(name, Files.getLastModifiedTime(file));
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (!name.endsWith(".journal")) {
+                continue;
+            }
+            String dataName = name.replace(".journal", ".dat");
+            if (added.containsKey(dataName)) {
+                PlanData base = PlanCodec.read(file.resolveSibling(dataName));
+                ByteBuffer folded = PlanCodec.encode(PlanJournal.replay(file, base));
+                byte[] bytes = new byte[folded.remaining()];
+                folded.get(bytes);
+                added.put(dataName, bytes);
+                modified.put(dataName, Files.getLastModifiedTime(file));
+            } else { // nothing to fold into, keep it as it is, with the snapshot of its changes
+                added.put(name, Files.readAllBytes(file));
+                modified.put(name, Files.getLastModifiedTime(file));
+                Path unsavedFile = file.resolveSibling(name.replace(".journal", ".unsaved"));
+                if (files.contains(unsavedFile)) {
+                    added.put(unsavedFile.getFileName().toString(), Files.readAllBytes(unsavedFile));
+                    modified.put(unsavedFile.getFileName().toString(), Files.getLastModifiedTime(unsavedFile));
+                }
+            }
+        }
+
+        Files.createDirectories(archive.getParent());
+        closeArchive(archive);
+        try (ZipFile existing = Files.exists(archive) ? new ZipFile(archive.toFile()) : null) {
+            PlanWriter.writeAtomically(archive, channel -> {
+                ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+                if (existing != null) { // files archived earlier, unless replaced
+                    for (ZipEntry entry : Collections.list(existing.entries())) {
+                        if (!added.containsKey(entry.getName())) {
+                            try (InputStream in = existing.getInputStream(entry)) {
+                                putEntry(zip, entry.getName(), in.readAllBytes(), entry.getLastModifiedTime());
+                            }
+                        }
+                    }
+                }
+                for (var file : added.entrySet()) {
+                    putEntry(zip, file.getKey(), file.getValue(), modified.get(file.getKey()));
+                }
+                zip.finish();
+                zip.flush();
+            });
+        }
+
+        verify(archive, added);
+        for (Path file : files) {
+            Files.delete(file);
+        }
+        System.out.println("Archived %d files in: %s".formatted(files.size(), archive));
+    }
+
+    private static void putEntry(ZipOutputStream zip, String name, byte[] bytes, FileTime modified) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setLastModifiedTime(modified);
+        if (name.endsWith(".png")) { // already compressed
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(bytes.length);
+            entry.setCrc(crc.getValue());
+        }
+        zip.putNextEntry(entry);
+        zip.write(bytes);
+        zip.closeEntry();
+    }
+
+    // the checksum of each entry is verified while reading it
+    private static void verify(Path archive, Map<String, byte[]> added) throws IOException {
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            for (var file : added.entrySet()) {
+                ZipEntry entry = zip.getEntry(file.getKey());
+                if (entry == null) {
+                    throw new IOException("Missing in the archive: " + file.getKey());
+                }
+                try (InputStream in = zip.getInputStream(entry)) {
+                    if (!Arrays.equals(in.readAllBytes(), file.getValue())) {
+                        throw new IOException("Archived file differs: " + file.getKey());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Archives the old months of the given plans directory (default: {@code plans}).
+     */
+    public static void main(String[] args) throws IOException {
+        Path plansDir = Path.of(args.length == 0 ? "plans" : args[0]);
+        Summary summary = archiveOldMonths(plansDir, LocalDate.now());
+        System.out.printf("Archived %d files of %d months, %d KB -> %d KB%n",
+                summary.files, summary.months, summary.bytesBefore / 1024, summary.bytesAfter / 1024);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import in.spbhat.EditableTask.EditableTaskStatus;
+import in.spbhat.PlanData.TaskData;
+
+import java.time.Duration;
+
+/**
+ * A single change made to the plan.
+ */
+public sealed interface PlanChange {
+    /**
+     * Changes with equal keys overwrite the same value, so only the latest one of them matters.
+     *
+     * @return the key, or null if the change must not be coalesced
+     */
+    default Object key() {
+        return null;
+    }
+
+    record TaskAdded(TaskData task) implements PlanChange {
+    }
+
+    record TaskRemoved(long id) implements PlanChange {
+    }
+
+    record TaskStatusChanged(long id, EditableTaskStatus status) implements PlanChange {
+        public Object key() {
+            return new Key(TaskStatusChanged.class, id, 0);
+        }
+    }
+
+    record TaskTextChanged(long id, String text) implements PlanChange {
+        public Object key() {
+            return new Key(TaskTextChanged.class, id, 0);
+        }
+    }
+
+    record TaskDurationsChanged(long id, Duration expected, Duration actual) implements PlanChange {
+        public Object key() {
+            return new Key(TaskDurationsChanged.class, id, 0);
+        }
+    }
+
+    record TaskPriorityChanged(long id, int priority) implements PlanChange {
+        public Object key() {
+            return new Key(TaskPriorityChanged.class, id, 0);
+        }
+    }
+
+    record TaskNotesChanged(long id, String notes) implements PlanChange {
+        public Object key() {
+            return new Key(TaskNotesChanged.class, id, 0);
+        }
+    }
+
+    record ProjectNameChanged(int project, String name) implements PlanChange {
+        public Object key() {
+            return new Key(ProjectNameChanged.class, project, 0);
+        }
+    }
+
+    record ProjectTaskChanged(int project, int task, String text) implements PlanChange {
+        public Object key() {
+            return new Key(ProjectTaskChanged.class, project, task);
+        }
+    }
+
+    record PeopleChanged(boolean waitingOn, String text) implements PlanChange {
+        public Object key() {
+            return new Key(PeopleChanged.class, waitingOn ? 1 : 0, 0);
+        }
+    }
+
+    record Key(Class<?> type, long first, long second) {
+    }
+}
@@ -0,0 +1,401 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import in.spbhat.EditableTask.EditableTaskStatus;
+import in.spbhat.PlanData.ProjectData;
+import in.spbhat.PlanData.TaskData;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads and writes the plan ({@code .dat}) files.
+ * <p>
+ * Layout of the binary format (all numbers big-endian):
+ * <pre>
+ *   int    magic ("PLAN")
+ *   short  version
+ *   short  number of sections
+ *   [short id, int offset, int length] for every section
+ *   section bytes ...
+ * </pre>
+ * All text is stored once in the STRINGS section (UTF-8, length prefixed)
+ * and referred to by its index from the other sections.
+ * Unknown sections are skipped, so that older versions can read newer files.
+ * <p>
+ * Files written by the older line-oriented format are still understood by {@link #read(Path)}.
+ * Run this class with the plans directory as argument to convert such files in place.
+ */
+public class PlanCodec {
+    static final int MAGIC = 0x504C414E; // "PLAN"
+    static final short VERSION = 2; // 2: task ids and journal sequence
+
+    private static final short STRINGS = 1;
+    private static final short PROJECTS = 2;
+    private static final short PEOPLE = 3;
+    private static final short TASKS = 4;
+    private static final short META = 5;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int SECTION_ENTRY_SIZE = 10;
+
+    private static final String newlineReplacement = "{newline}";
+
+    /**
+     * Reads the plan from the file, or from the archive if the file was archived.
+     */
+    public static PlanData read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            ByteBuffer buffer = ByteBuffer.wrap(PlanArchive.readAllBytes(file));
+            if (isBinary(buffer)) {
+                return decode(buffer);
+            }
+            return decodeLegacy(new BufferedReader(new StringReader(
+                    new String(buffer.array(), Charset.defaultCharset()))));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Plan file too large: " + file);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read until full
+            }
+            buffer.flip();
+            if (isBinary(buffer)) {
+                return decode(buffer);
+            }
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, Charset.defaultCharset())) {
+            return decodeLegacy(reader);
+        }
+    }
+
+    /**
+     * Replaces the file atomically with the encoded plan.
+     */
+    public static void write(PlanData plan, Path file) throws IOException {
+        PlanWriter.writeAtomically(file, channel -> write(plan, channel));
+    }
+
+    public static void write(PlanData plan, FileChannel channel) throws IOException {
+        ByteBuffer buffer = encode(plan);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    static boolean isBinary(ByteBuffer buffer) {
+        return buffer.remaining() >= 4 && buffer.getInt(buffer.position()) == MAGIC;
+    }
+
+    public static ByteBuffer encode(PlanData plan) {
+        StringPool pool = new StringPool();
+
+        SectionWriter projects = new SectionWriter();
+        projects.writeInt(plan.projects().size());
+        for (ProjectData project : plan.projects()) {
+            projects.writeInt(pool.ref(project.name()));
+            projects.writeInt(project.tasks().size());
+            for (String task : project.tasks()) {
+                projects.writeInt(pool.ref(task));
+            }
+        }
+
+        SectionWriter people = new SectionWriter();
+        people.writeInt(pool.ref(plan.peopleToReachOut()));
+        people.writeInt(pool.ref(plan.peopleWaitingOn()));
+
+        SectionWriter tasks = new SectionWriter();
+        tasks.writeInt(plan.tasks().size());
+        for (TaskData task : plan.tasks()) {
+            tasks.writeLong(task.id());
+            tasks.writeByte(task.status().ordinal());
+            tasks.writeInt(pool.ref(task.description()));
+            tasks.writeLong(task.expectedDuration().toSeconds());
+            tasks.writeLong(task.actualDuration().toSeconds());
+            tasks.writeByte(task.priority());
+            tasks.writeInt(pool.ref(task.notes()));
+        }
+
+        SectionWriter meta = new SectionWriter();
+        meta.writeLong(plan.journalSequence());
+
+        SectionWriter strings = new SectionWriter();
+        strings.writeInt(pool.strings.size());
+        for (String str : pool.strings) {
+            byte[] bytes = str.getBytes(UTF_8);
+            strings.writeInt(bytes.length);
+            strings.write(bytes);
+        }
+
+        short[] ids = {STRINGS, PROJECTS, PEOPLE, TASKS, META};
+        SectionWriter[] sections = {strings, projects, people, tasks, meta};
+        int offset = HEADER_SIZE + SECTION_ENTRY_SIZE * sections.length;
+        int totalSize = offset;
+        for (SectionWriter section : sections) {
+            totalSize += section.size();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(totalSize);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) sections.length);
+        for (int s = 0; s < sections.length; s++) {
+            buffer.putShort(ids[s]);
+            buffer.putInt(offset);
+            buffer.putInt(sections[s].size());
+            offset += sections[s].size();
+        }
+        for (SectionWriter section : sections) {
+            section.writeTo(buffer);
+        }
+        return buffer.flip();
+    }
+
+    public static PlanData decode(ByteBuffer buffer) throws IOException {
+        try {
+            ByteBuffer file = buffer.slice();
+            if (file.getInt() != MAGIC) {
+                throw new IOException("Not a plan file");
+            }
+            short version = file.getShort();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported plan file version: " + version);
+            }
+            int numSections = file.getShort();
+            Map<Short, ByteBuffer> sections = new HashMap<>();
+            for (int s = 0; s < numSections; s++) {
+                short id = file.getShort();
+                int offset = file.getInt();
+                int length = file.getInt();
+                sections.put(id, file.slice(offset, length));
+            }
+
+            ByteBuffer stringsSection = section(sections, STRINGS);
+            String[] strings = new String[stringsSection.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[stringsSection.getInt()];
+                stringsSection.get(bytes);
+                strings[i] = new String(bytes, UTF_8);
+            }
+
+            ByteBuffer projectsSection = section(sections, PROJECTS);
+            int numProjects = projectsSection.getInt();
+            List<ProjectData> projects = new ArrayList<>(numProjects);
+            for (int p = 0; p < numProjects; p++) {
+                String name = strings[projectsSection.getInt()];
+                int numTasks = projectsSection.getInt();
+                List<String> projectTasks = new ArrayList<>(numTasks);
+                for (int t = 0; t < numTasks; t++) {
+                    projectTasks.add(strings[projectsSection.getInt()]);
+                }
+                projects.add(new ProjectData(name, projectTasks));
+            }
+
+            ByteBuffer peopleSection = section(sections, PEOPLE);
+            String peopleToReachOut = strings[peopleSection.getInt()];
+            String peopleWaitingOn = strings[peopleSection.getInt()];
+
+            ByteBuffer tasksSection = section(sections, TASKS);
+            EditableTaskStatus[] statuses = EditableTaskStatus.values();
+            int numTasks = tasksSection.getInt();
+            List<TaskData> tasks = new ArrayList<>(numTasks);
+            for (int t = 0; t < numTasks; t++) {
+                long id = version >= 2 ? tasksSection.getLong() : t + 1;
+                EditableTaskStatus status = statuses[tasksSection.get()];
+                String description = strings[tasksSection.getInt()];
+                Duration expected = Duration.ofSeconds(tasksSection.getLong());
+                Duration actual = Duration.ofSeconds(tasksSection.getLong());
+                int priority = tasksSection.get();
+                String notes = strings[tasksSection.getInt()];
+                tasks.add(new TaskData(id, status, description, expected, actual, priority, notes));
+            }
+
+            long journalSequence = version >= 2 ? section(sections, META).getLong() : 0;
+
+            return new PlanData(projects, peopleToReachOut, peopleWaitingOn, tasks, journalSequence);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException
+                 | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IOException("Corrupt plan file", e);
+        }
+    }
+
+    private static ByteBuffer section(Map<Short, ByteBuffer> sections, short id) throws IOException {
+        ByteBuffer section = sections.get(id);
+        if (section == null) {
+            throw new IOException("Plan file is missing section " + id);
+        }
+        return section;
+    }
+
+    /**
+     * Reads the line-oriented format written by the earlier versions of the planner.
+     * Files from before the durations were introduced have the notes directly after the description.
+     */
+    static PlanData decodeLegacy(BufferedReader reader) throws IOException {
+        LineReader lines = new LineReader(reader);
+        // Project section
+        int numProj = Integer.parseInt(lines.next());
+        List<ProjectData> projects = new ArrayList<>(numProj);
+        for (int p = 0; p < numProj; p++) {
+            String projectName = lines.next();
+            int numProjTasks = Integer.parseInt(lines.next());
+            List<String> projectTasks = new ArrayList<>(numProjTasks);
+            for (int t = 0; t < numProjTasks; t++) {
+                projectTasks.add(lines.next());
+            }
+            projects.add(new ProjectData(projectName, projectTasks));
+        }
+
+        // People section
+        String peopleToReachOut = deSanitizeLegacyString(lines.next());
+        String peopleWaitingOn = deSanitizeLegacyString(lines.next());
+
+        // Priorities section
+        int numPrioritiesTasks = Integer.parseInt(lines.next());
+        List<TaskData> tasks = new ArrayList<>(numPrioritiesTasks);
+        for (int t = 0; t < numPrioritiesTasks; t++) {
+            String status = lines.next();
+            String taskDescription = lines.next();
+            int expectedDurationMinutes = PrioritiesSection.defaultExpectedDurationMinutes;
+            int actualDurationMinutes = PrioritiesSection.defaultActualDurationMinutes;
+            String line = lines.next();
+            try {
+                expectedDurationMinutes = Integer.parseInt(line.trim());
+                line = lines.next();
+                actualDurationMinutes = Integer.parseInt(line);
+                line = lines.next();
+            } catch (NumberFormatException ignore) {
+                // file from old version, this line already holds the notes
+            }
+            String notes = deSanitizeLegacyString(line);
+            tasks.add(new TaskData(t + 1, EditableTaskStatus.valueOf(status), taskDescription,
+                    Duration.ofMinutes(expectedDurationMinutes), Duration.ofMinutes(actualDurationMinutes),
+                    PrioritiesSection.defaultPriority, notes));
+        }
+        return new PlanData(projects, peopleToReachOut, peopleWaitingOn, tasks, 0);
+    }
+
+    private static String deSanitizeLegacyString(String input) {
+        return input.replace(newlineReplacement, "\n");
+    }
+
+    /**
+     * Converts all the plan files in the given directories (default: {@code plans})
+     * from the old text format to the binary format.
+     * The original file is kept with the {@code .legacy} extension.
+     */
+    public static void main(String[] args) throws IOException {
+        String[] dirs = args.length == 0 ? new String[]{"plans"} : args;
+        int converted = 0, skipped = 0, failed = 0;
+        for (String dir : dirs) {
+            List<Path> dataFiles;
+            try (var files = Files.list(Path.of(dir))) {
+                dataFiles = files.filter(file -> file.toString().endsWith(".dat")).sorted().toList();
+            }
+            for (Path dataFile : dataFiles) {
+                try {
+                    if (isBinaryFile(dataFile)) {
+                        skipped++;
+                        continue;
+                    }
+                    PlanData plan = read(dataFile);
+                    Files.copy(dataFile, dataFile.resolveSibling(dataFile.getFileName() + ".legacy"),
+                            StandardCopyOption.REPLACE_EXISTING);
+                    write(plan, dataFile);
+                    System.out.println("Converted: " + dataFile);
+                    converted++;
+                } catch (Exception e) {
+                    System.out.println("Unable to convert: " + dataFile + " (" + e + ")");
+                    failed++;
+                }
+            }
+        }
+        System.out.printf("Converted: %d, already binary: %d, failed: %d%n", converted, skipped, failed);
+    }
+
+    private static boolean isBinaryFile(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return isBinary(ByteBuffer.wrap(in.readNBytes(4)));
+        }
+    }
+
+    private static class StringPool {
+        final List<String> strings = new ArrayList<>();
+        final Map<String, Integer> refs = new HashMap<>();
+
+        int ref(String str) {
+            return refs.computeIfAbsent(str, s -> {
+                strings.add(s);
+                return strings.size() - 1;
+            });
+        }
+    }
+
+    private static class SectionWriter {
+        private ByteBuffer buffer = ByteBuffer.allocate(256);
+
+        void writeByte(int v) {
+            ensureRemaining(1).put((byte) v);
+        }
+
+        void writeInt(int v) {
+            ensureRemaining(4).putInt(v);
+        }
+
+        void writeLong(long v) {
+            ensureRemaining(8).putLong(v);
+        }
+
+        void write(byte[] bytes) {
+            ensureRemaining(bytes.length).put(bytes);
+        }
+
+        int size() {
+            return buffer.position();
+        }
+
+        void writeTo(ByteBuffer target) {
+            target.put(buffer.duplicate().flip());
+        }
+
+        private ByteBuffer ensureRemaining(int numBytes) {
+            if (buffer.remaining() < numBytes) {
+                int newCapacity = Math.max(buffer.capacity() * 2, buffer.position() + numBytes);
+                buffer = ByteBuffer.allocate(newCapacity).put(buffer.flip());
+            }
+            return buffer;
+        }
+    }
+
+    private static class LineReader {
+        private final BufferedReader reader;
+
+        LineReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        String next() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                throw new EOFException("Unexpected end of plan file");
+            }
+            return line;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import in.spbhat.EditableTask.EditableTaskStatus;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Immutable copy of everything that is saved in a plan file.
+ * The journal sequence is the last {@link PlanJournal} record already contained in this plan.
+ */
+public record PlanData(List<ProjectData> projects,
+                       String peopleToReachOut,
+                       String peopleWaitingOn,
+                       List<TaskData> tasks,
+                       long journalSequence) {
+
+    public PlanData {
+        projects = List.copyOf(projects);
+        peopleToReachOut = nonNull(peopleToReachOut);
+        peopleWaitingOn = nonNull(peopleWaitingOn);
+        tasks = List.copyOf(tasks);
+    }
+
+    public record ProjectData(String name, List<String> tasks) {
+        public ProjectData {
+            name = nonNull(name);
+            tasks = tasks.stream().map(PlanData::nonNull).toList();
+        }
+    }
+
+    public record TaskData(long id, EditableTaskStatus status, String description,
+                           Duration expectedDuration, Duration actualDuration,
+                           int priority, String notes) {
+        public TaskData {
+            description = nonNull(description);
+            notes = nonNull(notes);
+        }
+    }
+
+    private static String nonNull(String str) {
+        return str == null ? "" : str;
+    }
+}
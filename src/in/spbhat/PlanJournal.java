@@ -0,0 +1,496 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import in.spbhat.EditableTask.EditableTaskStatus;
+import in.spbhat.PlanChange.*;
+import in.spbhat.PlanData.ProjectData;
+import in.spbhat.PlanData.TaskData;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+import static in.spbhat.Planner.sleepFor;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Append-only journal of the changes made to the plan during the day.
+ * <p>
+ * Every change is written as a small record, so that nothing is lost on a crash.
+ * The records are collected for a short time and written together with a single fsync.
+ * On startup the journal is replayed on top of the last saved plan.
+ * When the plan is saved, the journal is folded into a fresh plan file and truncated.
+ * Once the journal grows large, it is folded into a snapshot of its own, {@code <date>.unsaved},
+ * so the plan file keeps the last saved plan, and discarding the changes drops the snapshot too.
+ * <p>
+ * Record layout: {@code [int length][long sequence][byte type][fields...][int crc32]},
+ * where the length and checksum cover the sequence, type and fields.
+ * A torn record at the end of the file (crash while writing) is dropped.
+ */
+public class PlanJournal {
+    private static final Duration commitInterval = Duration.ofMillis(50);
+    private static final int compactionThreshold = 4096; // records
+
+    private static final LinkedBlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private static FileChannel channel;
+    private static Path dataFile;
+    private static Path unsavedFile;
+    private static PlanData savedPlan;
+    private static Model model;
+    private static long sequence;
+    private static int recordsSinceCompaction;
+
+    private record Flush(CompletableFuture<Void> done) {
+    }
+
+    private record Checkpoint(PlanData plan, CompletableFuture<Void> done) {
+    }
+
+    private record Discard() {
+    }
+
+    /**
+     * Replays the journal (if any) on top of the given plan.
+     * Records already contained in the plan, as per its journal sequence, are skipped.
+     * The journal of an archived day is read from the archive.
+     */
+    public static PlanData replay(Path journalFile, PlanData base) throws IOException {
+        if (!PlanArchive.exists(journalFile)) {
+            return base;
+        }
+        Model replayed = new Model(unsavedOrBase(journalFile, base));
+        readRecords(ByteBuffer.wrap(PlanArchive.readAllBytes(journalFile)), replayed);
+        return replayed.toPlanData();
+    }
+
+    /**
+     * Opens the journal for appending, after replaying it on top of the given plan.
+     * Saving writes the folded plan to the data file.
+     *
+     * @param base the last saved plan, to which discarding the changes goes back
+     * @return the recovered plan
+     */
+    public static PlanData open(Path journalFile, Path dataFile, PlanData base) throws IOException {
+        if (channel != null) {
+            throw new IllegalStateException("Journal already open");
+        }
+        FileChannel fileChannel = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer buffer = ByteBuffer.allocate((int) fileChannel.size());
+        while (buffer.hasRemaining() && fileChannel.read(buffer, buffer.position()) >= 0) {
+            // read until full
+        }
+        buffer.flip();
+        Model recovered = new Model(unsavedOrBase(journalFile, base));
+        int validLength = readRecords(buffer, recovered);
+        if (validLength < fileChannel.size()) {
+            System.out.println("Dropping incomplete journal record at the end of: " + journalFile);
+            fileChannel.truncate(validLength);
+        }
+        fileChannel.position(validLength);
+
+        channel = fileChannel;
+        PlanJournal.dataFile = dataFile;
+        unsavedFile = unsavedFileOf(journalFile);
+        savedPlan = base;
+        model = recovered;
+        sequence = recovered.sequence;
+        Thread.startVirtualThread(PlanJournal::writeRecords);
+        return recovered.toPlanData();
+    }
+
+    /**
+     * @return true once the journal is opened, from then on it keeps the changes recorded
+     */
+    public static boolean isOpen() {
+        return channel != null;
+    }
+
+    /**
+     * Queues the change for writing, has no effect until the journal is opened.
+     */
+    public static void record(PlanChange change) {
+        if (channel != null) {
+            queue.add(change);
+        }
+    }
+
+    /**
+     * Folds the journal into the given plan, which is written as the new plan file.
+     */
+    public static CompletableFuture<Void> checkpoint(PlanData plan) {
+        if (channel == null) {
+            Path dataFile = Path.of("plans", Planner.todayDateString + ".dat");
+            return PlanWriter.submit(fileChannel -> PlanCodec.write(plan, fileChannel), dataFile);
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        queue.add(new Checkpoint(plan, done));
+        return done;
+    }
+
+    /**
+     * Drops the changes recorded since the plan was last saved.
+     */
+    public static void discard() {
+        queue.add(new Discard());
+    }
+
+    /**
+     * Waits until all the recorded changes are on the disk.
+     */
+    public static void flush() {
+        if (channel == null) {
+            return;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        queue.add(new Flush(done));
+        done.join();
+    }
+
+    private static void writeRecords() {
+        List<Object> batch = new ArrayList<>();
+        List<PlanChange> changes = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            sleepFor(commitInterval); // group commit
+            queue.drainTo(batch);
+            for (Object item : batch) {
+                if (item instanceof PlanChange change) {
+                    changes.add(change);
+                    continue;
+                }
+                append(changes);
+                switch (item) {
+                    case Checkpoint(PlanData plan, CompletableFuture<Void> done) -> {
+                        try {
+                            save(plan);
+                            done.complete(null);
+                        } catch (IOException e) {
+                            done.completeExceptionally(e);
+                        }
+                    }
+                    case Discard() -> discardUnsaved();
+                    case Flush(CompletableFuture<Void> done) -> done.complete(null);
+                    default -> throw new IllegalStateException("Unexpected journal item: " + item);
+                }
+            }
+            append(changes);
+            batch.clear();
+            if (recordsSinceCompaction >= compactionThreshold) {
+                try {
+                    compact();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private static void append(List<PlanChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        // keep only the latest value of a field within the batch
+        List<PlanChange> coalesced = new ArrayList<>(changes.size());
+        Map<Object, Integer> indexOfKey = new HashMap<>();
+        for (PlanChange change : changes) {
+            Object key = change.key();
+            Integer index = key == null ? null : indexOfKey.get(key);
+            if (index != null) {
+                coalesced.set(index, change);
+            } else {
+                if (key != null) indexOfKey.put(key, coalesced.size());
+                coalesced.add(change);
+            }
+        }
+        changes.clear();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            for (PlanChange change : coalesced) {
+                sequence++;
+                writeRecord(bytes, sequence, change);
+                model.apply(change);
+                model.sequence = sequence;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            recordsSinceCompaction += coalesced.size();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void save(PlanData plan) throws IOException {
+        PlanData snapshot = new PlanData(plan.projects(), plan.peopleToReachOut(), plan.peopleWaitingOn(),
+                plan.tasks(), sequence);
+        PlanCodec.write(snapshot, dataFile);
+        // records up to the sequence are in the plan file now
+        truncate();
+        Files.deleteIfExists(unsavedFile);
+        savedPlan = snapshot;
+        model = new Model(snapshot);
+        System.out.println("Journal compacted into: " + dataFile);
+    }
+
+    // the plan file is left as it was last saved
+    private static void compact() throws IOException {
+        PlanCodec.write(model.toPlanData(), unsavedFile);
+        // records up to the sequence are in the snapshot now
+        truncate();
+        System.out.println("Journal compacted into: " + unsavedFile);
+    }
+
+    private static void discardUnsaved() {
+        try {
+            Files.deleteIfExists(unsavedFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        truncate();
+        model = new Model(savedPlan);
+        model.sequence = sequence;
+    }
+
+    private static Path unsavedFileOf(Path journalFile) {
+        return journalFile.resolveSibling(journalFile.getFileName().toString().replace(".journal", ".unsaved"));
+    }
+
+    // the snapshot of the journal, unless the plan was saved after it
+    private static PlanData unsavedOrBase(Path journalFile, PlanData base) throws IOException {
+        Path unsaved = unsavedFileOf(journalFile);
+        if (PlanArchive.exists(unsaved)) {
+            PlanData plan = PlanCodec.read(unsaved);
+            if (plan.journalSequence() > base.journalSequence()) {
+                return plan;
+            }
+        }
+        return base;
+    }
+
+    private static void truncate() {
+        try {
+            channel.truncate(0);
+            channel.force(false);
+            recordsSinceCompaction = 0;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void writeRecord(ByteArrayOutputStream bytes, long seq, PlanChange change) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        payload.writeLong(seq);
+        switch (change) {
+            case TaskAdded(TaskData task) -> {
+                payload.writeByte(1);
+                payload.writeLong(task.id());
+                payload.writeByte(task.status().ordinal());
+                writeString(payload, task.description());
+                payload.writeLong(task.expectedDuration().toSeconds());
+                payload.writeLong(task.actualDuration().toSeconds());
+                payload.writeByte(task.priority());
+                writeString(payload, task.notes());
+            }
+            case TaskRemoved(long id) -> {
+                payload.writeByte(2);
+                payload.writeLong(id);
+            }
+            case TaskStatusChanged(long id, EditableTaskStatus status) -> {
+                payload.writeByte(3);
+                payload.writeLong(id);
+                payload.writeByte(status.ordinal());
+            }
+            case TaskTextChanged(long id, String text) -> {
+                payload.writeByte(4);
+                payload.writeLong(id);
+                writeString(payload, text);
+            }
+            case TaskDurationsChanged(long id, Duration expected, Duration actual) -> {
+                payload.writeByte(5);
+                payload.writeLong(id);
+                payload.writeLong(expected.toSeconds());
+                payload.writeLong(actual.toSeconds());
+            }
+            case TaskPriorityChanged(long id, int priority) -> {
+                payload.writeByte(6);
+                payload.writeLong(id);
+                payload.writeByte(priority);
+            }
+            case TaskNotesChanged(long id, String notes) -> {
+                payload.writeByte(7);
+                payload.writeLong(id);
+                writeString(payload, notes);
+            }
+            case ProjectNameChanged(int project, String name) -> {
+                payload.writeByte(8);
+                payload.writeByte(project);
+                writeString(payload, name);
+            }
+            case ProjectTaskChanged(int project, int task, String text) -> {
+                payload.writeByte(9);
+                payload.writeByte(project);
+                payload.writeByte(task);
+                writeString(payload, text);
+            }
+            case PeopleChanged(boolean waitingOn, String text) -> {
+                payload.writeByte(10);
+                payload.writeBoolean(waitingOn);
+                writeString(payload, text);
+            }
+        }
+        byte[] payloadArray = payloadBytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payloadArray);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(payloadArray.length);
+        out.write(payloadArray);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Applies the valid records to the model.
+     *
+     * @return the number of bytes in the valid records
+     */
+    private static int readRecords(ByteBuffer buffer, Model model) {
+        EditableTaskStatus[] statuses = EditableTaskStatus.values();
+        int validLength = 0;
+        while (buffer.remaining() >= 4) {
+            int length = buffer.getInt();
+            if (length <= 0 || buffer.remaining() < length + 4) {
+                break;
+            }
+            byte[] payloadArray = new byte[length];
+            buffer.get(payloadArray);
+            CRC32 crc = new CRC32();
+            crc.update(payloadArray);
+            if (buffer.getInt() != (int) crc.getValue()) {
+                break;
+            }
+            try {
+                DataInputStream payload = new DataInputStream(new ByteArrayInputStream(payloadArray));
+                long seq = payload.readLong();
+                PlanChange change = switch (payload.readByte()) {
+                    case 1 -> new TaskAdded(new TaskData(payload.readLong(), statuses[payload.readByte()],
+                            readString(payload), Duration.ofSeconds(payload.readLong()),
+                            Duration.ofSeconds(payload.readLong()), payload.readByte(), readString(payload)));
+                    case 2 -> new TaskRemoved(payload.readLong());
+                    case 3 -> new TaskStatusChanged(payload.readLong(), statuses[payload.readByte()]);
+                    case 4 -> new TaskTextChanged(payload.readLong(), readString(payload));
+                    case 5 -> new TaskDurationsChanged(payload.readLong(),
+                            Duration.ofSeconds(payload.readLong()), Duration.ofSeconds(payload.readLong()));
+                    case 6 -> new TaskPriorityChanged(payload.readLong(), payload.readByte());
+                    case 7 -> new TaskNotesChanged(payload.readLong(), readString(payload));
+                    case 8 -> new ProjectNameChanged(payload.readByte(), readString(payload));
+                    case 9 -> new ProjectTaskChanged(payload.readByte(), payload.readByte(), readString(payload));
+                    case 10 -> new PeopleChanged(payload.readBoolean(), readString(payload));
+                    default -> throw new IOException("Unknown journal record type");
+                };
+                if (seq > model.sequence) {
+                    model.apply(change);
+                    model.sequence = seq;
+                }
+            } catch (IOException | IndexOutOfBoundsException e) {
+                break;
+            }
+            validLength = buffer.position();
+        }
+        return validLength;
+    }
+
+    // writeUTF is limited to 64K bytes, notes can be longer
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = (str == null ? "" : str).getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(in.readNBytes(in.readInt()), UTF_8);
+    }
+
+    /**
+     * The plan as it would be after applying all the records written so far.
+     */
+    private static class Model {
+        final String[] projectNames;
+        final String[][] projectTasks;
+        String peopleToReachOut;
+        String peopleWaitingOn;
+        final LinkedHashMap<Long, TaskData> tasks = new LinkedHashMap<>();
+        long sequence;
+
+        Model(PlanData plan) {
+            projectNames = new String[plan.projects().size()];
+            projectTasks = new String[plan.projects().size()][];
+            for (int p = 0; p < projectNames.length; p++) {
+                projectNames[p] = plan.projects().get(p).name();
+                projectTasks[p] = plan.projects().get(p).tasks().toArray(String[]::new);
+            }
+            peopleToReachOut = plan.peopleToReachOut();
+            peopleWaitingOn = plan.peopleWaitingOn();
+            for (TaskData task : plan.tasks()) {
+                tasks.put(task.id(), task);
+            }
+            sequence = plan.journalSequence();
+        }
+
+        void apply(PlanChange change) {
+            switch (change) {
+                case TaskAdded(TaskData task) -> tasks.put(task.id(), task);
+                case TaskRemoved(long id) -> tasks.remove(id);
+                case TaskStatusChanged(long id, EditableTaskStatus status) -> tasks.computeIfPresent(id, (_, t) ->
+                        new TaskData(id, status, t.description(), t.expectedDuration(), t.actualDuration(), t.priority(), t.notes()));
+                case TaskTextChanged(long id, String text) -> tasks.computeIfPresent(id, (_, t) ->
+                        new TaskData(id, t.status(), text, t.expectedDuration(), t.actualDuration(), t.priority(), t.notes()));
+                case TaskDurationsChanged(long id, Duration expected, Duration actual) -> tasks.computeIfPresent(id, (_, t) ->
+                        new TaskData(id, t.status(), t.description(), expected, actual, t.priority(), t.notes()));
+                case TaskPriorityChanged(long id, int priority) -> tasks.computeIfPresent(id, (_, t) ->
+                        new TaskData(id, t.status(), t.description(), t.expectedDuration(), t.actualDuration(), priority, t.notes()));
+                case TaskNotesChanged(long id, String notes) -> tasks.computeIfPresent(id, (_, t) ->
+                        new TaskData(id, t.status(), t.description(), t.expectedDuration(), t.actualDuration(), t.priority(), notes));
+                case ProjectNameChanged(int project, String name) -> {
+                    if (project >= 0 && project < projectNames.length) projectNames[project] = name;
+                }
+                case ProjectTaskChanged(int project, int task, String text) -> {
+                    if (project >= 0 && project < projectTasks.length
+                        && task >= 0 && task < projectTasks[project].length) projectTasks[project][task] = text;
+                }
+                case PeopleChanged(boolean waitingOn, String text) -> {
+                    if (waitingOn) peopleWaitingOn = text;
+                    else peopleToReachOut = text;
+                }
+            }
+        }
+
+        PlanData toPlanData() {
+            List<ProjectData> projects = new ArrayList<>(projectNames.length);
+            for (int p = 0; p < projectNames.length; p++) {
+                projects.add(new ProjectData(projectNames[p], Arrays.asList(projectTasks[p])));
+            }
+            return new PlanData(projects, peopleToReachOut, peopleWaitingOn, List.copyOf(tasks.values()), sequence);
+        }
+    }
+}
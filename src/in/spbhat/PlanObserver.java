@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import in.spbhat.PlanChange.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Turns the edits made in the planner sections into {@link PlanChange}s, together with the changes of the
+ * {@link TaskModel}. Listeners are called on the thread making the change.
+ */
+public class PlanObserver {
+    private static final List<Consumer<PlanChange>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Calls the listener for every change made in the planner sections from now on.
+     */
+    public static void observe(Consumer<PlanChange> listener) {
+        if (listeners.isEmpty()) {
+            attach();
+        }
+        listeners.add(listener);
+    }
+
+    private static void publish(PlanChange change) {
+        for (Consumer<PlanChange> listener : listeners) {
+            listener.accept(change);
+        }
+    }
+
+    private static void attach() {
+        for (int p = 0; p < ProjectSection.projectDataProperties.size(); p++) {
+            final int project = p;
+            ProjectDataProperty projProp = ProjectSection.projectDataProperties.get(p);
+            projProp.projectName.addListener((_, _, name) -> publish(new ProjectNameChanged(project, name)));
+            for (int t = 0; t < projProp.projectTasks.size(); t++) {
+                final int task = t;
+                projProp.projectTasks.get(t).addListener((_, _, text) ->
+                        publish(new ProjectTaskChanged(project, task, text)));
+            }
+        }
+
+        PeopleSection.peopleToReachOutProperty.addListener((_, _, text) -> publish(new PeopleChanged(false, text)));
+        PeopleSection.peopleWaitingOnProperty.addListener((_, _, text) -> publish(new PeopleChanged(true, text)));
+
+        TaskModel.subscribe(changes -> changes.forEach(PlanObserver::publish));
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the saved files away from the JavaFX Application Thread.
+ * <p>
+ * All the work is done by a single writer thread, so two saves never interleave.
+ * Files are first written to a temporary file, synced to the disk, and then renamed over the old file,
+ * so that a crash while saving leaves either the old or the new file, never a partial one.
+ */
+public class PlanWriter {
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        // not a daemon, so that pending saves are completed before exit
+        Thread thread = new Thread(runnable, "Plan Writer");
+        thread.setDaemon(false);
+        return thread;
+    });
+
+    @FunctionalInterface
+    public interface ChannelWriter {
+        void write(FileChannel channel) throws IOException;
+    }
+
+    /**
+     * Encodes the image as PNG and writes it to the file on the writer thread.
+     *
+     * @param argbPixels pixels of the image in the INT_ARGB format, row by row
+     */
+    public static CompletableFuture<Void> saveImage(int width, int height, int[] argbPixels, Path file) {
+        return CompletableFuture.runAsync(() -> {
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            image.setRGB(0, 0, width, height, argbPixels, 0, width);
+            writeUnchecked(file, channel -> {
+                OutputStream out = Channels.newOutputStream(channel);
+                if (!ImageIO.write(image, "PNG", out)) {
+                    throw new IOException("No PNG writer available");
+                }
+                out.flush();
+            });
+        }, writer);
+    }
+
+    /**
+     * Runs the task on the writer thread, after the saves submitted earlier.
+     */
+    public static CompletableFuture<Void> submit(ChannelWriter task, Path file) {
+        return CompletableFuture.runAsync(() -> writeUnchecked(file, task), writer);
+    }
+
+    /**
+     * Runs the task on the writer thread, after the saves submitted earlier.
+     */
+    public static <T> CompletableFuture<T> submit(Callable<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, writer);
+    }
+
+    private static void writeUnchecked(Path file, ChannelWriter task) {
+        try {
+            writeAtomically(file, task);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the file through a temporary file in the same directory, which is synced and renamed.
+     * Can be called from any thread, the caller must make sure that writes to the same file do not overlap.
+     * The temporary file is created like any other file (not owner-only), as it becomes the file.
+     */
+    public static void writeAtomically(Path file, ChannelWriter task) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Path tempFile = dir.resolve(file.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                task.write(channel);
+                channel.force(true);
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        syncDirectory(dir);
+    }
+
+    // make the rename durable, not supported on all platforms
+    private static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignore) {
+        }
+    }
+
+    /**
+     * Completes the pending saves and stops the writer thread.
+     */
+    public static void shutdown() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.out.println("Pending saves did not complete in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
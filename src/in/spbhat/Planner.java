@@ -5,11 +5,10 @@
 
 package in.spbhat;
 
-import in.spbhat.EditableTask.EditableTaskStatus;
+import in.spbhat.PlanData.ProjectData;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.embed.swing.SwingFXUtils;
 import javafx.event.Event;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -18,6 +17,7 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyCodeCombination;
@@ -26,23 +26,20 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
 import javafx.scene.web.WebView;
 import javafx.stage.Stage;
 
-import javax.imageio.ImageIO;
-import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
-import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
 
 import static java.time.LocalDateTime.now;
 import static java.time.format.DateTimeFormatter.ofPattern;
@@ -65,6 +62,7 @@ public class Planner extends Application {
     @Override
     public void start(Stage stage) {
         primaryStage = stage;
+        SoundCues.preload();
         Scene scene = new Scene(createContent(), 900, 1000);
         stage.setScene(scene);
         stage.getIcons().addAll(
@@ -77,20 +75,29 @@ public class Planner extends Application {
         moveToFrontIntermittently();
         stage.show();
 
+        CompletionLog.setFailureHandler(e -> {
+            e.printStackTrace();
+            Platform.runLater(() -> {
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Log failed");
+                alert.setHeaderText("Unable to write the completed tasks to the log");
+                alert.setContentText(e.toString());
+                alert.show();
+            });
+        });
+
         // Floating InfoWidget
         infoWidget = new InfoWidget(primaryStage);
         infoWidget.show();
     }
 
     private void moveToFrontIntermittently() {
-        Thread.startVirtualThread(() -> {
-            while (true) {
-                sleepFor(Duration.of(30, MINUTES));
-                if (!infoWidget.isShowing()) {
-                    movePrimaryStageToFront();
-                }
-            }
-        });
+        TickScheduler.repeat("Bring to front", Duration.of(30, MINUTES), Duration.ofMinutes(1),
+                TickScheduler.fxThread, () -> {
+                    if (!infoWidget.isShowing()) {
+                        movePrimaryStageToFront();
+                    }
+                });
     }
 
     public static void movePrimaryStageToFront() {
@@ -109,14 +116,40 @@ public class Planner extends Application {
         MenuItem showLogMenuItem = new MenuItem("Show _Log");
         showLogMenuItem.setOnAction(event -> showLog());
 
-        fileMenu.getItems().addAll(saveMenuItem, showLogMenuItem);
+        CheckMenuItem autoSaveMenuItem = new CheckMenuItem("_Auto Save");
+        autoSaveMenuItem.selectedProperty().bindBidirectional(AutoSave.enabled);
+
+        MenuItem searchHistoryMenuItem = new MenuItem("Search _History...");
+        searchHistoryMenuItem.setAccelerator(new KeyCodeCombination(KeyCode.F, KeyCombination.CONTROL_DOWN));
+        searchHistoryMenuItem.setOnAction(event -> new HistorySearch().show());
+
+        MenuItem snapshotsMenuItem = new MenuItem("Show Saved S_napshots...");
+        snapshotsMenuItem.setOnAction(event -> new SnapshotViewer().show());
+
+        MenuItem analyticsMenuItem = new MenuItem("Task Ana_lytics...");
+        analyticsMenuItem.setOnAction(event -> new AnalyticsDashboard().show());
+
+        MenuItem focusMenuItem = new MenuItem("_Focus Statistics...");
+        focusMenuItem.setOnAction(event -> showFocusStatistics());
+
+        MenuItem timeSpentMenuItem = new MenuItem("_Time Spent...");
+        timeSpentMenuItem.setOnAction(event -> new TimeSpentViewer().show());
+
+        MenuItem archiveMenuItem = new MenuItem("Archive Old _Months");
+        archiveMenuItem.setOnAction(event -> archiveOldMonths());
+
+        fileMenu.getItems().addAll(saveMenuItem, autoSaveMenuItem, showLogMenuItem, searchHistoryMenuItem,
+                snapshotsMenuItem, analyticsMenuItem, focusMenuItem, timeSpentMenuItem, archiveMenuItem);
 
         Menu helpMenu = new Menu("_Help");
         MenuItem aboutMenuItem = new MenuItem("_About");
         aboutMenuItem.setAccelerator(new KeyCodeCombination(KeyCode.F1));
         aboutMenuItem.setOnAction(event -> showAboutInfo());
 
-        helpMenu.getItems().add(aboutMenuItem);
+        MenuItem backgroundJobsMenuItem = new MenuItem("_Background Jobs");
+        backgroundJobsMenuItem.setOnAction(event -> showBackgroundJobs());
+
+        helpMenu.getItems().addAll(aboutMenuItem, backgroundJobsMenuItem);
 
         MenuBar menuBar = new MenuBar(fileMenu, helpMenu);
         menuBar.setUseSystemMenuBar(true);
@@ -148,6 +181,17 @@ public class Planner extends Application {
         return root;
     }
 
+    private void showBackgroundJobs() {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Background Jobs");
+        alert.setHeaderText("Scheduler woke up %d times, %s".formatted(TickScheduler.wakeups(), UiUpdates.statistics()));
+        alert.setContentText(TickScheduler.metrics().stream()
+                .map(TickScheduler.JobMetrics::toString)
+                .collect(Collectors.joining("\n")));
+        alert.setResizable(true);
+        alert.show();
+    }
+
     private void showAboutInfo() {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("About");
@@ -191,18 +235,56 @@ public class Planner extends Application {
     }
 
     public static void showLog() {
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Log of completed tasks");
-        alert.setHeaderText("Today's tasks saved after completion");
-        String logText = "Log file not found. Probably no task is completed so far.";
-        try {
-            logText = Files.readString(new File("plans", Planner.todayDateString + ".log").toPath());
-        } catch (IOException ignore) {
-        }
-        alert.getDialogPane().setPrefWidth(800);
-        alert.setContentText(logText);
-        alert.setResizable(true);
-        alert.showAndWait();
+        new LogViewer(Path.of("plans", Planner.todayDateString + ".log")).show();
+    }
+
+    public static void archiveOldMonths() {
+        Thread.startVirtualThread(() -> {
+            try {
+                PlanArchive.Summary summary = PlanArchive.archiveOldMonths(Path.of("plans"), now.toLocalDate());
+                showArchiveResult(Alert.AlertType.INFORMATION,
+                        "Archived %d files of %d months".formatted(summary.files(), summary.months()),
+                        "%d KB compressed to %d KB.".formatted(summary.bytesBefore() / 1024, summary.bytesAfter() / 1024));
+            } catch (IOException e) {
+                e.printStackTrace();
+                showArchiveResult(Alert.AlertType.ERROR, "Unable to archive the old months", e.toString());
+            }
+        });
+    }
+
+    public static void showFocusStatistics() {
+        Thread.startVirtualThread(() -> {
+            StringBuilder content = new StringBuilder();
+            try {
+                for (int daysAgo = 0; daysAgo < 7; daysAgo++) {
+                    SessionLedger.DayTotals totals = SessionLedger.totals(now.toLocalDate().minusDays(daysAgo));
+                    content.append("%s: %d Pomodoros, %d min focus, %d min breaks, %.1f interruptions per Pomodoro%n"
+                            .formatted(totals.date(), totals.workingSessions(), totals.focus().toMinutes(),
+                                    totals.breaks().toMinutes(), totals.interruptionsPerSession()));
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                content.append("Unable to read the sessions: ").append(e.getMessage());
+            }
+            Platform.runLater(() -> {
+                Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                alert.setTitle("Focus Statistics");
+                alert.setHeaderText("Pomodoro sessions of the last 7 days");
+                alert.setContentText(content.toString());
+                alert.setResizable(true);
+                alert.show();
+            });
+        });
+    }
+
+    private static void showArchiveResult(Alert.AlertType type, String header, String content) {
+        Platform.runLater(() -> {
+            Alert alert = new Alert(type);
+            alert.setTitle("Archive");
+            alert.setHeaderText(header);
+            alert.setContentText(content);
+            alert.show();
+        });
     }
 
     private void save(Node node, Event event) {
@@ -216,11 +298,14 @@ public class Planner extends Application {
         alert.getButtonTypes().addAll(buttons);
         alert.setHeaderText("Save image and data?");
         alert.setContentText("");
-        playNotificationSound();
+        SoundCues.play(SoundCues.Cue.QUESTION);
         alert.showAndWait().ifPresent(buttonType -> {
             if (buttonType.getButtonData().equals(ButtonBar.ButtonData.OK_DONE)) {
                 saveImageAndData(node);
             }
+            if (buttonType.getButtonData().equals(ButtonBar.ButtonData.NO) && !AutoSave.enabled.get()) {
+                PlanJournal.discard(); // the changes saved automatically are kept in the journal
+            }
             if (buttonType.equals(ButtonType.CANCEL)) {
                 event.consume();
             }
@@ -228,138 +313,135 @@ public class Planner extends Application {
     }
 
     private void saveImageAndData(Node node) {
-        String imageFilename = "plans/" + todayDateString + ".png";
-        String dataFileName = "plans/" + todayDateString + ".dat";
-        // Saving image
+        Path dataFile = Path.of("plans", todayDateString + ".dat");
+        // Capture image and data on the FX thread, encode and write them in the background
         final WritableImage snapshot = node.snapshot(null, null);
-        try {
-            System.out.println(imageFilename);
-            ImageIO.write(SwingFXUtils.fromFXImage(snapshot, null), "PNG",
-                    new File(imageFilename));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        // Save data
-        File dataFile = new File(dataFileName);
-        try (PrintWriter fileWriter = new PrintWriter(dataFile)) {
-            System.out.println(dataFileName);
-            // save Projects section
-            fileWriter.println(ProjectSection.projectDataProperties.size());
-            for (ProjectDataProperty projProp : ProjectSection.projectDataProperties) {
-                fileWriter.println(projProp.projectName.get());
-                fileWriter.println(projProp.projectTasks.size());
-                for (SimpleStringProperty projectTask : projProp.projectTasks) {
-                    fileWriter.println(projectTask.get());
-                }
+        int width = (int) snapshot.getWidth();
+        int height = (int) snapshot.getHeight();
+        int[] pixels = new int[width * height];
+        snapshot.getPixelReader().getPixels(0, 0, width, height,
+                PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        PlanData plan = capturePlan();
+
+        CompletableFuture<SnapshotStore.SaveResult> imageSaved =
+                SnapshotStore.save(now.toLocalDate(), width, height, pixels);
+        CompletableFuture.allOf(imageSaved, PlanJournal.checkpoint(plan)).whenComplete((_, error) -> {
+            if (error == null) {
+                System.out.println("Saved: " + dataFile + ", snapshot " + imageSaved.join());
+            } else {
+                error.printStackTrace();
+                Platform.runLater(() -> {
+                    Alert alert = new Alert(Alert.AlertType.ERROR);
+                    alert.setTitle("Save failed");
+                    alert.setHeaderText("Unable to save the plan");
+                    alert.setContentText(String.valueOf(error.getCause() != null ? error.getCause() : error));
+                    alert.show();
+                });
             }
+        });
+    }
 
-            // save People section
-            fileWriter.println(sanitizeStringFromPlanner(
-                    PeopleSection.peopleToReachOutProperty.get()));
-            fileWriter.println(sanitizeStringFromPlanner(
-                    PeopleSection.peopleWaitingOnProperty.get()));
-
-            // save Priorities section - tasks and status
-            // last one is the add button
-            int numPrioritiesTasks = PrioritiesSection.prioritiesTaskList.size() - 1;
-            fileWriter.println(numPrioritiesTasks);
-            for (int t = 0; t < numPrioritiesTasks; t++) {
-                EditableTask task = (EditableTask) PrioritiesSection.prioritiesTaskList.get(t);
-                fileWriter.println(task.taskCompleted.isSelected() ? EditableTaskStatus.COMPLETE
-                        : task.taskCompleted.isIndeterminate() ? EditableTaskStatus.IN_PROCESS
-                        : EditableTaskStatus.INCOMPLETE);
-                fileWriter.println(task.taskField.getText());
-                fileWriter.println(task.expectedDuration.get().toMinutes());
-                fileWriter.println(task.actualDuration.get().toMinutes());
-                fileWriter.println(sanitizeStringFromPlanner(task.notes));
-            }
+    private static PlanData capturePlan() {
+        // Projects section
+        List<ProjectData> projects = ProjectSection.projectDataProperties.stream()
+                .map(projProp -> new ProjectData(projProp.projectName.get(),
+                        projProp.projectTasks.stream().map(SimpleStringProperty::get).toList()))
+                .toList();
+
+        return new PlanData(projects,
+                PeopleSection.peopleToReachOutProperty.get(),
+                PeopleSection.peopleWaitingOnProperty.get(),
+                TimeTracker.tasks(), 0);
+    }
+
+    private void loadPlanIfAvailable() {
+        PlanData plan = capturePlan();
+        try {
+            plan = loadLatestPlan(plan);
         } catch (IOException e) {
             e.printStackTrace();
         }
+        applyPlan(plan);
+        PlanObserver.observe(PlanJournal::record);
+        AutoSave.start(Planner::capturePlan);
     }
 
-    private void loadPlanIfAvailable() {
-        // Go back up to four days
+    /**
+     * Reads the plan of the last day saved (going back up to four days), replays the journals of that day and
+     * of the days after it, and opens today's journal on it.
+     *
+     * @param plan used if no plan is saved
+     */
+    static PlanData loadLatestPlan(PlanData plan) throws IOException {
+        int savedDay = -1;
+        List<Path> unsavedDayJournals = new ArrayList<>(); // of the days without a saved plan, the latest first
         for (int day = 0; day < 4; day++) {
             String dateString = now.minusDays(day).format(dateFormatter);
-            String dataFileName = "plans/" + dateString + ".dat";
-            File dataFile = new File(dataFileName);
-            if (dataFile.exists()) {
-                loadPlan(dataFile);
+            Path dataFile = Path.of("plans", dateString + ".dat");
+            Path journalFile = Path.of("plans", dateString + ".journal");
+            if (PlanArchive.exists(dataFile)) {
+                plan = PlanCodec.read(dataFile);
+                savedDay = day;
                 break;
             }
+            if (day != 0 && PlanArchive.exists(journalFile)) {
+                unsavedDayJournals.add(journalFile);
+            }
+        }
+        if (savedDay > 0) { // changes left over from that day
+            plan = PlanJournal.replay(Path.of("plans", now.minusDays(savedDay).format(dateFormatter) + ".journal"),
+                    plan);
+        }
+        // the journal of another day has its own sequence, so all its records are replayed
+        for (Path journalFile : unsavedDayJournals.reversed()) {
+            plan = PlanJournal.replay(journalFile, withJournalSequence(plan, 0));
         }
+        if (savedDay != 0) {
+            plan = withJournalSequence(plan, 0);
+        }
+        return PlanJournal.open(Path.of("plans", todayDateString + ".journal"),
+                Path.of("plans", todayDateString + ".dat"), plan);
     }
 
-    private void loadPlan(File dataFile) {
-        try (Scanner fileScanner = new Scanner(dataFile)) {
-            // Project section
-            int numProj = Integer.parseInt(fileScanner.nextLine());
-            if (ProjectSection.projectDataProperties.size() != numProj) {
-                throw new IllegalStateException("The number of projects in file doesn't match.");
-            }
-            for (ProjectDataProperty projProp : ProjectSection.projectDataProperties) {
-                projProp.projectName.set(fileScanner.nextLine());
-                int numProjTasks = Integer.parseInt(fileScanner.nextLine());
-                if (projProp.projectTasks.size() != numProjTasks) {
-                    throw new IllegalStateException("The number of tasks under project doesn't match");
-                }
-                for (SimpleStringProperty projectTask : projProp.projectTasks) {
-                    projectTask.set(fileScanner.nextLine());
-                }
-            }
+    private static PlanData withJournalSequence(PlanData plan, long journalSequence) {
+        return new PlanData(plan.projects(), plan.peopleToReachOut(), plan.peopleWaitingOn(), plan.tasks(),
+                journalSequence);
+    }
 
-            // People section
-            String peopleToReachOut = deSanitizeStringFromFile(fileScanner.nextLine());
-            PeopleSection.peopleToReachOutProperty.set(peopleToReachOut);
-            String peopleWaitingOn = deSanitizeStringFromFile(fileScanner.nextLine());
-            PeopleSection.peopleWaitingOnProperty.set(peopleWaitingOn);
-
-            // Priorities section
-            int numPrioritiesTasks = Integer.parseInt(fileScanner.nextLine());
-            for (int t = 0; t < numPrioritiesTasks; t++) {
-                String status = fileScanner.nextLine();
-                String taskDescription = fileScanner.nextLine();
-                int expectedDurationMinutes = PrioritiesSection.defaultExpectedDurationMinutes;
-                int actualDurationMinutes = PrioritiesSection.defaultActualDurationMinutes;
-                try {
-                    expectedDurationMinutes = fileScanner.nextInt();
-                    fileScanner.nextLine();
-                    actualDurationMinutes = Integer.parseInt(fileScanner.nextLine());
-                } catch (Exception ignore) {
-                    // ignore in case of parsing error
-                    // thus enabling to read files from old version
-                }
-                String notes = deSanitizeStringFromFile(fileScanner.nextLine());
-                PrioritiesSection.addEditableTask(
-                        taskDescription, EditableTaskStatus.valueOf(status),
-                        expectedDurationMinutes, actualDurationMinutes, notes);
+    private static void applyPlan(PlanData plan) {
+        // Project section
+        if (ProjectSection.projectDataProperties.size() != plan.projects().size()) {
+            throw new IllegalStateException("The number of projects in file doesn't match.");
+        }
+        for (int p = 0; p < plan.projects().size(); p++) {
+            ProjectDataProperty projProp = ProjectSection.projectDataProperties.get(p);
+            ProjectData project = plan.projects().get(p);
+            projProp.projectName.set(project.name());
+            if (projProp.projectTasks.size() != project.tasks().size()) {
+                throw new IllegalStateException("The number of tasks under project doesn't match");
+            }
+            for (int t = 0; t < project.tasks().size(); t++) {
+                projProp.projectTasks.get(t).set(project.tasks().get(t));
             }
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
         }
-    }
-
-    public static void sleepFor(Duration duration) {
-        LockSupport.parkNanos(duration.toNanos());
-    }
 
-    private static final MediaPlayer notificationPlayer = new MediaPlayer(new Media(Objects.requireNonNull(
-            PomodoroSection.class.getResource("sounds/dialog-question.mp3")).toString()));
+        // People section
+        PeopleSection.peopleToReachOutProperty.set(plan.peopleToReachOut());
+        PeopleSection.peopleWaitingOnProperty.set(plan.peopleWaitingOn());
 
-    public static void playNotificationSound() {
-        notificationPlayer.setOnEndOfMedia(notificationPlayer::stop);
-        notificationPlayer.play();
+        // Priorities section
+        TaskModel.setAll(plan.tasks());
     }
 
-    private static final String newlineReplacement = "{newline}";
-
-    private String sanitizeStringFromPlanner(String input) {
-        return input.replace("\n", newlineReplacement);
+    @Override
+    public void stop() {
+        TimeTracker.checkpoint();
+        CompletionLog.flush();
+        PlanJournal.flush();
+        PlanWriter.shutdown();
     }
 
-    private String deSanitizeStringFromFile(String input) {
-        return input.replace(newlineReplacement, "\n");
+    public static void sleepFor(Duration duration) {
+        LockSupport.parkNanos(duration.toNanos());
     }
 }
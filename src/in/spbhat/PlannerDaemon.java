@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import in.spbhat.EditableTask.EditableTaskStatus;
+import in.spbhat.PlanData.ProjectData;
+import in.spbhat.PlanData.TaskData;
+import in.spbhat.PomodoroSection.PomodoroState;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Runs the Pomodoro sessions and the time tracking of the tasks without the UI (and without starting JavaFX).
+ * <p>
+ * Started with {@code --headless [--port=N]}, it loads the plan of the day like the planner does, and writes the
+ * same journal, plan and log files. It reads commands (see {@link #help}) from the standard input, and from the
+ * clients connecting to the port on the local machine. {@code --send <command>} sends a command to the running
+ * daemon and prints the reply.
+ * <p>
+ * The daemon and the planner should not be run on the same day's plan at the same time.
+ */
+public class PlannerDaemon {
+    private static final int DEFAULT_PORT = 47613;
+    private static final String help = """
+            status              the Pomodoro session and the tasks in process
+            start | pause | skip   the Pomodoro session
+            tasks               all the tasks
+            add <priority> <description>
+            begin <id>          marks the task as in process, its time is tracked while working
+            stop <id>           marks the task as incomplete
+            done <id>           marks the task as completed, logs it and removes it from the plan
+            spent [<from> [<to>]]   time spent per task on the days (yyyy-MM-dd), today by default
+            at [<date>] <HH:mm>  the tasks worked on at the time
+            save                writes the plan file
+            quit                saves and stops the daemon""";
+
+    private static PomodoroEngine engine;
+    private static PlanData plan; // the tasks are in the TaskModel
+    private static TickScheduler.Job sessionEndJob;
+
+    /**
+     * Runs the daemon, or sends a command to it, if asked by the arguments.
+     *
+     * @return false if the arguments are for the planner
+     */
+    public static boolean handles(String[] args) throws IOException {
+        List<String> arguments = List.of(args);
+        int port = arguments.stream().filter(arg -> arg.startsWith("--port="))
+                .map(arg -> Integer.parseInt(arg.substring("--port=".length())))
+                .findFirst().orElse(DEFAULT_PORT);
+        int send = arguments.indexOf("--send");
+        if (send >= 0) {
+            send(port, String.join(" ", arguments.subList(send + 1, arguments.size())));
+            return true;
+        }
+        if (arguments.contains("--headless")) {
+            run(port);
+            return true;
+        }
+        return false;
+    }
+
+    private static void send(int port, String command) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), UTF_8)) {
+            out.write(command + "\n");
+            out.flush();
+            String line;
+            while ((line = in.readLine()) != null && !line.isEmpty()) {
+                System.out.println(line);
+            }
+        }
+    }
+
+    private static void run(int port) throws IOException {
+        synchronized (PlannerDaemon.class) {
+            plan = Planner.loadLatestPlan(blankPlan());
+            TaskModel.setAll(plan.tasks());
+            TaskModel.subscribe(changes -> changes.forEach(PlanJournal::record));
+            TimeTracker.start();
+            engine = new PomodoroEngine(new PomodoroEngine.Settings(Duration.ofMinutes(25), Duration.ofMinutes(5),
+                    Duration.ofMinutes(10), 4));
+            engine.setOnSessionEnd(ended -> {
+                SessionLedger.record(ended).whenComplete((_, error) -> {
+                    if (error != null) error.printStackTrace();
+                });
+                System.out.println("Session ended: %s. Next: %s, send 'start' to begin."
+                        .formatted(ended.state(), ended.next()));
+            });
+            sessionEndJob = TickScheduler.once("Daemon session end", Duration.ZERO, Duration.ZERO,
+                    TickScheduler.schedulerThread, PlannerDaemon::updateSession);
+            engine.setOnChange(() -> sessionEndJob.reschedule(Duration.ZERO));
+        }
+
+        ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread serverThread = Thread.ofVirtual().name("Daemon Server").start(() -> {
+            while (true) {
+                try {
+                    Socket client = server.accept();
+                    Thread.startVirtualThread(() -> serve(client));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    return;
+                }
+            }
+        });
+        System.out.printf("Planner running without the UI, %d tasks, listening on port %d. Type 'help'.%n",
+                TaskModel.tasks().size(), port);
+
+        BufferedReader console = new BufferedReader(new InputStreamReader(System.in));
+        String line;
+        while ((line = console.readLine()) != null) {
+            System.out.println(execute(line));
+        }
+        // no console (e.g. started in the background), keep serving the port
+        try {
+            serverThread.join();
+        } catch (InterruptedException ignore) {
+            // stopped
+        }
+    }
+
+    private static void serve(Socket client) {
+        try (client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), UTF_8));
+             Writer out = new OutputStreamWriter(client.getOutputStream(), UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                out.write(execute(line) + "\n\n"); // an empty line ends the reply
+                out.flush();
+            }
+        } catch (IOException e) {
+            System.out.println("Client disconnected: " + e.getMessage());
+        }
+    }
+
+    private static PlanData blankPlan() {
+        List<ProjectData> projects = new ArrayList<>();
+        for (int p = 0; p < ProjectSection.NUM_PROJECTS; p++) {
+            projects.add(new ProjectData("", Collections.nCopies(ProjectDataProperty.NUM_PROJECT_TASKS, "")));
+        }
+        return new PlanData(projects, "", "", List.of(), 0);
+    }
+
+    static synchronized String execute(String line) {
+        String[] words = line.strip().split("\\s+", 2);
+        String argument = words.length > 1 ? words[1] : "";
+        try {
+            return switch (words[0]) {
+                case "", "help" -> help;
+                case "status" -> status();
+                case "start" -> {
+                    engine.start();
+                    yield status();
+                }
+                case "pause" -> {
+                    engine.pause();
+                    yield status();
+                }
+                case "skip" -> {
+                    engine.skip();
+                    yield status();
+                }
+                case "tasks" -> {
+                    StringBuilder tasks = new StringBuilder();
+                    for (TaskData task : TaskModel.tasks()) {
+                        tasks.append(describe(task)).append('\n');
+                    }
+                    yield tasks.isEmpty() ? "No tasks" : tasks.toString().stripTrailing();
+                }
+                case "add" -> {
+                    String[] priorityAndText = argument.split("\\s+", 2);
+                    int priority = Integer.parseInt(priorityAndText[0]);
+                    TaskData task = TaskModel.add(priorityAndText.length > 1 ? priorityAndText[1] : "",
+                            Duration.ofMinutes(PrioritiesSection.defaultExpectedDurationMinutes),
+                            Duration.ofMinutes(PrioritiesSection.defaultActualDurationMinutes), priority, "");
+                    yield describe(task);
+                }
+                case "begin" -> setStatus(Long.parseLong(argument), EditableTaskStatus.IN_PROCESS);
+                case "stop" -> setStatus(Long.parseLong(argument), EditableTaskStatus.INCOMPLETE);
+                case "done" -> {
+                    long id = Long.parseLong(argument);
+                    String reply = setStatus(id, EditableTaskStatus.COMPLETE);
+                    TaskData task = task(id);
+                    LogRecord logRecord = LogRecord.of(task);
+                    CompletionLog.append(logRecord.toJson());
+                    TaskAnalytics.recordCompletion(logRecord);
+                    TaskModel.remove(id);
+                    yield reply + " (logged)";
+                }
+                case "spent" -> {
+                    String[] dates = argument.isBlank() ? new String[0] : argument.split("\\s+");
+                    LocalDate from = dates.length > 0 ? LocalDate.parse(dates[0]) : LocalDate.now();
+                    LocalDate to = dates.length > 1 ? LocalDate.parse(dates[1]) : from;
+                    TimeTracker.checkpoint(); // the time up to now
+                    PlanWriter.submit(() -> null).join(); // recorded
+                    yield TimeSpentViewer.timeSpent(from, to);
+                }
+                case "at" -> {
+                    String[] dateAndTime = argument.split("\\s+");
+                    LocalDate date = dateAndTime.length > 1 ? LocalDate.parse(dateAndTime[0]) : LocalDate.now();
+                    yield TimeSpentViewer.workingOn(date.atTime(LocalTime.parse(dateAndTime[dateAndTime.length - 1])));
+                }
+                case "save" -> {
+                    TimeTracker.checkpoint();
+                    PlanJournal.checkpoint(currentPlan()).join();
+                    yield "Saved";
+                }
+                case "quit" -> {
+                    TimeTracker.checkpoint();
+                    PlanJournal.checkpoint(currentPlan()).join();
+                    CompletionLog.flush();
+                    PlanJournal.flush();
+                    PlanWriter.shutdown();
+                    System.out.println("Saved, stopping");
+                    System.exit(0);
+                    yield "";
+                }
+                default -> "Unknown command: " + words[0] + "\n" + help;
+            };
+        } catch (NumberFormatException e) {
+            return "Not a number: " + e.getMessage();
+        } catch (DateTimeParseException e) {
+            return "Not a date (yyyy-MM-dd) or time (HH:mm): " + e.getParsedString();
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return "Failed: " + e;
+        }
+    }
+
+    private static String status() {
+        StringBuilder status = new StringBuilder();
+        status.append("Pomodoro %d, %s: %s%s".formatted(engine.sessionNumber(), engine.state(),
+                format(engine.remaining()), engine.isRunning() ? "" : engine.isStarted() ? " (paused)" : " (not started)"));
+        for (TaskData task : TaskModel.tasks(EditableTaskStatus.IN_PROCESS)) {
+            status.append('\n').append(describe(task));
+        }
+        return status.toString();
+    }
+
+    private static String describe(TaskData task) {
+        return "%d. [%s] P%d %s (%s of %s)".formatted(task.id(), switch (task.status()) {
+            case INCOMPLETE -> " ";
+            case IN_PROCESS -> "~";
+            case COMPLETE -> "x";
+        }, task.priority(), task.description(), format(TimeTracker.actualDuration(task)), format(task.expectedDuration()));
+    }
+
+    private static String format(Duration duration) {
+        return "%d:%02d:%02d".formatted(duration.toHours(), duration.toMinutesPart(), duration.toSecondsPart());
+    }
+
+    private static TaskData task(long id) {
+        return TaskModel.task(id).orElseThrow(() -> new IllegalArgumentException("No task with id " + id));
+    }
+
+    private static String setStatus(long id, EditableTaskStatus status) {
+        task(id);
+        TaskModel.setStatus(id, status);
+        return describe(task(id));
+    }
+
+    private static PlanData currentPlan() {
+        return new PlanData(plan.projects(), plan.peopleToReachOut(), plan.peopleWaitingOn(), TaskModel.tasks(), 0);
+    }
+
+    /**
+     * Ends the session when its time is over, and tracks the time of the tasks only while working.
+     */
+    private static synchronized void updateSession() {
+        engine.update();
+        TimeTracker.setWorking(engine.isRunning() && engine.state() == PomodoroState.WORKING);
+        if (engine.isRunning()) {
+            sessionEndJob.reschedule(engine.remaining());
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import in.spbhat.PomodoroSection.PomodoroState;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the time of the Pomodoro sessions: working, followed by a short break,
+ * or by a long break after every few working sessions.
+ * <p>
+ * The time is measured on a monotonic clock ({@link System#nanoTime()} by default), not counted in ticks,
+ * so the remaining time does not drift however late {@link #update()} is called.
+ * A new session is not started by itself: it waits for {@link #start()}, so that it can be announced first.
+ * The clock is pluggable, so that a day of sessions can be run through without waiting.
+ */
+public class PomodoroEngine {
+    /**
+     * @param longBreakInterval number of working sessions after which the break is a long one
+     */
+    public record Settings(Duration working, Duration shortBreak, Duration longBreak, int longBreakInterval) {
+        public Duration duration(PomodoroState state) {
+            return switch (state) {
+                case WORKING -> working;
+                case SHORT_BREAK -> shortBreak;
+                case LONG_BREAK -> longBreak;
+            };
+        }
+    }
+
+    /**
+     * A session which has ended.
+     *
+     * @param next          state of the next session
+     * @param active        time the session was running
+     * @param paused        time the session was paused, after it was started
+     * @param pauses        number of times the session was paused
+     * @param finishedEarly true if the session was skipped before its time was over
+     */
+    public record SessionEnd(PomodoroState state, PomodoroState next, Duration active, Duration paused,
+                             int pauses, boolean finishedEarly) {
+    }
+
+    private final LongSupplier nanoClock;
+    private Settings settings;
+    private Consumer<SessionEnd> onSessionEnd = _ -> {
+    };
+    private Runnable onChange = () -> {
+    };
+
+    private int sessionNumber = 0; // sessions started so far, including the current one
+    private int workingSessions = 0; // working sessions started so far
+    private PomodoroState state = PomodoroState.WORKING;
+    private boolean running = false;
+    private long elapsedNanos = 0; // until the last pause
+    private long resumedAtNanos;
+    private int pauses = 0;
+    private long pausedNanos = 0; // until the last resume
+    private long pausedAtNanos = -1; // -1 when not paused
+
+    public PomodoroEngine(Settings settings) {
+        this(settings, System::nanoTime);
+    }
+
+    public PomodoroEngine(Settings settings, LongSupplier nanoClock) {
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @param onSessionEnd called when a session ends or is skipped
+     */
+    public synchronized void setOnSessionEnd(Consumer<SessionEnd> onSessionEnd) {
+        this.onSessionEnd = onSessionEnd;
+    }
+
+    /**
+     * @param onChange called when the engine is started, paused or changed, or a session ends
+     */
+    public synchronized void setOnChange(Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    /**
+     * Starts the current session, or resumes it if it was paused.
+     */
+    public void start() {
+        synchronized (this) {
+            if (running) {
+                return;
+            }
+            startFirstSession();
+            running = true;
+            resumedAtNanos = nanoClock.getAsLong();
+            if (pausedAtNanos >= 0) {
+                pausedNanos += resumedAtNanos - pausedAtNanos;
+                pausedAtNanos = -1;
+            }
+        }
+        notifyChange();
+    }
+
+    public void pause() {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            pausedAtNanos = nanoClock.getAsLong();
+            elapsedNanos += pausedAtNanos - resumedAtNanos;
+            running = false;
+            pauses++;
+        }
+        notifyChange();
+    }
+
+    /**
+     * Ends the current session now, the next one waits for {@link #start()}.
+     */
+    public void skip() {
+        SessionEnd ended;
+        synchronized (this) {
+            ended = endSession(true);
+        }
+        notifySessionEnd(ended);
+    }
+
+    /**
+     * Changes the durations, also of the current session.
+     */
+    public void setSettings(Settings settings) {
+        synchronized (this) {
+            this.settings = settings;
+        }
+        notifyChange();
+    }
+
+    public synchronized Settings settings() {
+        return settings;
+    }
+
+    /**
+     * Ends the current session if its time is over.
+     *
+     * @return true if the session ended
+     */
+    public boolean update() {
+        SessionEnd ended;
+        synchronized (this) {
+            if (!running || remainingNanos() > 0) {
+                return false;
+            }
+            ended = endSession(false);
+        }
+        notifySessionEnd(ended);
+        return true;
+    }
+
+    // called without holding the lock, the listeners may take long
+    private void notifyChange() {
+        Runnable listener;
+        synchronized (this) {
+            listener = onChange;
+        }
+        listener.run();
+    }
+
+    private void notifySessionEnd(SessionEnd ended) {
+        Consumer<SessionEnd> listener;
+        synchronized (this) {
+            listener = onSessionEnd;
+        }
+        listener.accept(ended);
+        notifyChange();
+    }
+
+    // the first session is counted when it is started, or skipped without starting it
+    private void startFirstSession() {
+        if (sessionNumber == 0) {
+            sessionNumber = 1;
+            workingSessions = 1;
+        }
+    }
+
+    private SessionEnd endSession(boolean skipped) {
+        startFirstSession();
+        long now = nanoClock.getAsLong();
+        long active = elapsedNanos + (running ? now - resumedAtNanos : 0);
+        long paused = pausedNanos + (pausedAtNanos >= 0 ? now - pausedAtNanos : 0);
+        boolean finishedEarly = skipped && active < settings.duration(state).toNanos();
+        int pauseCount = pauses;
+        PomodoroState ended = state;
+        if (state == PomodoroState.WORKING) {
+            state = workingSessions % settings.longBreakInterval() == 0
+                    ? PomodoroState.LONG_BREAK : PomodoroState.SHORT_BREAK;
+        } else {
+            state = PomodoroState.WORKING;
+            workingSessions++;
+        }
+        sessionNumber++;
+        running = false;
+        elapsedNanos = 0;
+        pauses = 0;
+        pausedNanos = 0;
+        pausedAtNanos = -1;
+        return new SessionEnd(ended, state, Duration.ofNanos(active), Duration.ofNanos(paused),
+                pauseCount, finishedEarly);
+    }
+
+    public synchronized PomodoroState state() {
+        return state;
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return true if the time of the current session has started, even if it is paused now
+     */
+    public synchronized boolean isStarted() {
+        return running || elapsedNanos > 0;
+    }
+
+    /**
+     * @return number of the current session, 0 before the first one is started
+     */
+    public synchronized int sessionNumber() {
+        return sessionNumber;
+    }
+
+    public synchronized Duration remaining() {
+        return Duration.ofNanos(Math.max(0, remainingNanos()));
+    }
+
+    private long remainingNanos() {
+        long elapsed = elapsedNanos + (running ? nanoClock.getAsLong() - resumedAtNanos : 0);
+        return settings.duration(state).toNanos() - elapsed;
+    }
+
+    /**
+     * @return time until the remaining time (or the end of the session) is at a whole second,
+     * a second when it is at one now
+     */
+    public synchronized Duration untilNextSecond() {
+        long untilNextSecond = Math.floorMod(remainingNanos(), 1_000_000_000L);
+        return Duration.ofNanos(untilNextSecond == 0 ? 1_000_000_000L : untilNextSecond);
+    }
+}
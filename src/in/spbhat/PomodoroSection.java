@@ -5,30 +5,34 @@
 
 package in.spbhat;
 
+import in.spbhat.EditableTask.EditableTaskStatus;
 import in.spbhat.icons.Icon;
 import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.geometry.VPos;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
+import javafx.scene.effect.Effect;
 import javafx.scene.effect.Glow;
 import javafx.scene.effect.InnerShadow;
 import javafx.scene.layout.*;
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
+import javafx.scene.text.Font;
 
-import java.io.File;
 import java.time.Duration;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.Random;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
-import static in.spbhat.Planner.sleepFor;
-
 public class PomodoroSection extends Section {
 
     public enum PomodoroState {
@@ -54,28 +58,47 @@ public class PomodoroSection extends Section {
 
     private static int longBreakInterval = 4;
     private static final SimpleDoubleProperty soundLevel = new SimpleDoubleProperty(5);
-    public static boolean pomodoroRunning = false;
-    public static PomodoroState currentPomodoroState = null;
+    private static final PomodoroEngine engine = new PomodoroEngine(currentSettings());
     public static Label titleTextLabel;
-    private static final String sessionEndNotifySound = Objects.requireNonNull(
-            PomodoroSection.class.getResource("sounds/ring.mp3")).toString();
-    private static final MediaPlayer notificationPlayer = new MediaPlayer(new Media(sessionEndNotifySound));
 
     public PomodoroSection() {
         super("Pomodoro | Not Started Yet: 00:00:00", createContent(), false);
         titleTextLabel = super.titleText;
-        startRunningPomodoroThread();
+        SoundCues.setSoundLevel(soundLevel);
+        startPomodoroDisplay();
     }
 
+    private static final int MAX_INDICATORS = 12;
+    private static final EarlierSessions earlierSessions = new EarlierSessions();
     private static Button startStopBtn;
     private static Button fastForwardBtn;
     private static HBox indicatorsContent;
-    private static int millisPerSecond; // for early finish of pomodoro
+
+    private static final SimpleBooleanProperty working = new SimpleBooleanProperty(false);
+
+    /**
+     * @return true if a working session is running (not paused)
+     */
+    public static boolean isWorking() {
+        return engine.isRunning() && engine.state() == PomodoroState.WORKING;
+    }
+
+    /**
+     * @return {@link #isWorking()} as a property, changed on the JavaFX Application Thread
+     */
+    public static ReadOnlyBooleanProperty workingProperty() {
+        return working;
+    }
+
+    private static PomodoroEngine.Settings currentSettings() {
+        return new PomodoroEngine.Settings(PomodoroState.WORKING.duration, PomodoroState.SHORT_BREAK.duration,
+                PomodoroState.LONG_BREAK.duration, longBreakInterval);
+    }
 
     private static Pane createContent() {
-        Indicator last = new Indicator(PomodoroState.LONG_BREAK);
-        last.setActive(true);
-        indicatorsContent = new HBox();
+        indicatorsContent = new HBox(earlierSessions);
+        earlierSessions.setVisible(false);
+        earlierSessions.setManaged(false);
         indicatorsContent.setSpacing(10);
         indicatorsContent.setAlignment(Pos.CENTER);
 
@@ -86,14 +109,14 @@ public class PomodoroSection extends Section {
         fastForwardBtn.setGraphic(Icon.graphic("fast-forward.png", 20));
         fastForwardBtn.setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
         fastForwardBtn.setTooltip(new Tooltip("Finish Early"));
-        fastForwardBtn.setOnAction(e -> millisPerSecond = 2);
+        fastForwardBtn.setOnAction(e -> engine.skip());
 
         startStopBtn = new Button("Start");
         stopPomodoro();
         startStopBtn.setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
         startStopBtn.setTooltip(new Tooltip("Start / Stop Pomodoro"));
         startStopBtn.setOnAction(e -> {
-            if (pomodoroRunning) {
+            if (engine.isRunning()) {
                 stopPomodoro();
             } else {
                 startPomodoro();
@@ -113,14 +136,23 @@ public class PomodoroSection extends Section {
         return pomodoroContent;
     }
 
+    /**
+     * Adds the indicator of a session. Only the last {@value #MAX_INDICATORS} sessions have an indicator,
+     * the earlier ones are counted in the summary at the start of the strip.
+     */
     private static Indicator addPomodoroIndicator(PomodoroState pomodoroState) {
         Indicator indicator = new Indicator(pomodoroState);
-        Platform.runLater(() -> indicatorsContent.getChildren().add(indicator));
+        List<Node> children = indicatorsContent.getChildren();
+        children.add(indicator);
+        if (children.size() - 1 > MAX_INDICATORS) {
+            Indicator oldest = (Indicator) children.remove(1);
+            earlierSessions.add(oldest.pomodoroState);
+        }
         return indicator;
     }
 
     private static void stopPomodoro() {
-        pomodoroRunning = false;
+        engine.pause();
         stopBackgroundSound();
         startStopBtn.setGraphic(Icon.graphic("start.png", 20));
         fastForwardBtn.setDisable(true);
@@ -128,71 +160,86 @@ public class PomodoroSection extends Section {
     }
 
     private static void startPomodoro() {
-        pomodoroRunning = true;
-        startBackgroundSound(currentPomodoroState);
+        if (!engine.isStarted()) { // a new session, announce it first
+            announceSession(engine.state());
+            return;
+        }
+        resumePomodoro();
+    }
+
+    private static void resumePomodoro() {
+        engine.start();
+        startBackgroundSound(engine.state());
         startStopBtn.setGraphic(Icon.graphic("stop.png", 20));
         fastForwardBtn.setDisable(false);
         System.out.println("Starting pomodoro");
     }
 
-    private static boolean pomodoroThreadStarted = false;
-
-    private void startRunningPomodoroThread() {
-        if (pomodoroThreadStarted) return;
-        pomodoroThreadStarted = true;
-        Thread.startVirtualThread(() -> {
-            for (int pomodoroNumber = 0; true; pomodoroNumber++) {
-                for (int state = 0; state < 2; state++) {
-                    PomodoroState pomodoroState;
-                    if (state % 2 == 0) {
-                        pomodoroState = PomodoroState.WORKING;
-                    } else if ((pomodoroNumber + 1) % longBreakInterval == 0) {
-                        pomodoroState = PomodoroState.LONG_BREAK;
-                    } else {
-                        pomodoroState = PomodoroState.SHORT_BREAK;
-                    }
-                    currentPomodoroState = pomodoroState;
-
-                    Indicator indicator = addPomodoroIndicator(pomodoroState);
-                    millisPerSecond = 1000;
-                    for (int seconds = 0; seconds < pomodoroState.duration.toSeconds(); seconds++) {
-                        do {
-                            indicator.setActive(pomodoroRunning);
-                            sleepFor(Duration.ofMillis(millisPerSecond));
-                        } while (!pomodoroRunning);
-
-                        if (seconds == 0) { // Show message about the Pomodoro state
-                            pomodoroRunning = false;
-                            stopBackgroundSound();
-                            Platform.runLater(() -> {
-                                Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                                alert.setTitle("Time for '%s'".formatted(pomodoroState));
-                                String activeTaskList;
-                                if (pomodoroState == PomodoroState.WORKING) {
-                                    activeTaskList = PrioritiesSection.prioritiesTaskList.stream()
-                                            .filter(node -> node instanceof EditableTask)
-                                            .map(task -> (EditableTask) task)
-                                            .filter(task -> task.taskCompleted.isIndeterminate())
-                                            .map(task -> "\n-" + task.taskField.getText())
-                                            .collect(Collectors.joining("")).indent(2);
-                                } else activeTaskList = "";
-                                alert.setHeaderText("Begin: " + pomodoroState + activeTaskList);
-                                alert.setContentText("Duration: " + format(pomodoroState.duration));
-                                alert.showAndWait();
-                                startBackgroundSound(pomodoroState);
-                                pomodoroRunning = true;
-                            });
-                        }
-
-                        Duration remainingSeconds = pomodoroState.duration.minusSeconds(seconds);
-                        Platform.runLater(() -> super.titleText.setText("Pomodoro | %s: %s".formatted(pomodoroState, format(remainingSeconds))));
-                    }
-                    indicator.setActive(false);
-                    notificationPlayer.stop();
-                    notificationPlayer.play();
-                }
-            }
+    // Shows message about the Pomodoro state, the session starts when it is closed
+    private static void announceSession(PomodoroState pomodoroState) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Time for '%s'".formatted(pomodoroState));
+        String activeTaskList;
+        if (pomodoroState == PomodoroState.WORKING) {
+            activeTaskList = TaskModel.tasks(EditableTaskStatus.IN_PROCESS).stream()
+                    .map(task -> "\n-" + task.description())
+                    .collect(Collectors.joining("")).indent(2);
+        } else activeTaskList = "";
+        alert.setHeaderText("Begin: " + pomodoroState + activeTaskList);
+        alert.setContentText("Duration: " + format(engine.settings().duration(pomodoroState)));
+        alert.showAndWait();
+        resumePomodoro();
+    }
+
+    private static TickScheduler.Job displayJob;
+    private static int shownSession = 0;
+    private static Indicator shownIndicator;
+
+    /**
+     * Shows the remaining time of the session, and announces the next session when it ends.
+     * The time is kept by the {@link PomodoroEngine}, the display is updated by a job of the {@link TickScheduler}
+     * only when the shown time changes, and not at all while the session is not running.
+     */
+    private void startPomodoroDisplay() {
+        if (displayJob != null) return;
+        engine.setOnSessionEnd(ended -> {
+            SessionLedger.record(ended).whenComplete((_, error) -> {
+                if (error != null) error.printStackTrace();
+            });
+            stopBackgroundSound();
+            SoundCues.play(SoundCues.Cue.SESSION_END);
+            Platform.runLater(() -> {
+                startStopBtn.setGraphic(Icon.graphic("start.png", 20));
+                fastForwardBtn.setDisable(true);
+                announceSession(ended.next());
+            });
         });
+        displayJob = TickScheduler.once("Pomodoro display", Duration.ZERO, Duration.ZERO,
+                TickScheduler.fxThread, this::updateDisplay);
+        engine.setOnChange(() -> displayJob.reschedule(Duration.ZERO));
+    }
+
+    private void updateDisplay() {
+        engine.update();
+        PomodoroState pomodoroState = engine.state();
+        int session = engine.sessionNumber();
+        if (session != shownSession) {
+            if (shownIndicator != null) shownIndicator.setActive(false);
+            shownIndicator = addPomodoroIndicator(pomodoroState);
+            shownSession = session;
+        }
+        if (shownIndicator != null) {
+            shownIndicator.setActive(engine.isRunning());
+        }
+        if (engine.isStarted()) {
+            // round up, the full duration is shown at the start
+            Duration remaining = Duration.ofSeconds(Math.ceilDiv(engine.remaining().toNanos(), 1_000_000_000L));
+            super.titleText.setText("Pomodoro | %s: %s".formatted(pomodoroState, format(remaining)));
+        }
+        working.set(isWorking());
+        if (engine.isRunning()) {
+            displayJob.reschedule(engine.untilNextSecond());
+        }
     }
 
     private static String format(Duration duration) {
@@ -256,100 +303,138 @@ public class PomodoroSection extends Section {
 
                 longBreakInterval = Integer.parseInt(longBreakIntervalField.getText());
                 soundLevel.set(soundLevelSlider.getValue());
+                engine.setSettings(currentSettings());
             }
         });
     }
 
-    private static MediaPlayer bgSoundPlayer;
+    private static final SoundPlaylist backgroundSounds = new SoundPlaylist(soundLevel.divide(100.0));
 
     private static void startBackgroundSound(PomodoroState pomodoroState) {
-        if (bgSoundPlayer != null) {
-            bgSoundPlayer.dispose();
-        }
-        chooseBackgroundSoundFile(pomodoroState).ifPresent(file -> {
-            String source = file.toURI().toString();
-            bgSoundPlayer = new MediaPlayer(new Media(source));
-            bgSoundPlayer.volumeProperty().bind(soundLevel.divide(100.0));
-            bgSoundPlayer.setOnEndOfMedia(() -> startBackgroundSound(pomodoroState));
-            bgSoundPlayer.play();
-        });
+        backgroundSounds.play(SoundPlaylist.Category.of(pomodoroState));
     }
 
     private static void stopBackgroundSound() {
-        if (bgSoundPlayer != null) {
-            bgSoundPlayer.stop();
-        }
+        backgroundSounds.stop();
     }
 
-    private static Optional<File> chooseBackgroundSoundFile(PomodoroState pomodoroState) {
-        File baseSoundPath = switch (pomodoroState) {
-            case WORKING -> new File("sounds/working/");
-            case SHORT_BREAK, LONG_BREAK -> new File("sounds/break/");
+    public static class Indicator extends Circle {
+        // shared by all the indicators, only one of them is active at a time
+        private static final Effect effect = new Glow();
+        private static Indicator active;
+        private static final AnimationTimer timer = new AnimationTimer() {
+            double time = 0.0;
+            long prev = -1;
+
+            @Override
+            public void start() {
+                prev = -1;
+                super.start();
+            }
+
+            @Override
+            public void handle(long now) {
+                if (prev < 0) {
+                    prev = now;
+                    return;
+                }
+                double secs = 1e-9 * (now - prev);
+                if (secs < 0.1) {
+                    return;
+                }
+                time += secs;
+                prev = now;
+                double f = Math.sin(2 * time % (2 * Math.PI));
+                active.setOpacity(f * f);
+            }
         };
-        File[] soundFiles = baseSoundPath.listFiles(file -> file.getPath().endsWith(".mp3"));
 
-        if (soundFiles == null || soundFiles.length == 0) {
-            System.out.println("Unable to locate mp3 files in the folder: " + baseSoundPath.getAbsolutePath());
-            return Optional.empty();
+        static {
+            ((Glow) effect).setInput(new InnerShadow());
         }
-        File chosenFile = soundFiles[new Random().nextInt(soundFiles.length)];
-        System.out.println("Sound file:" + chosenFile.getAbsoluteFile());
-        return Optional.of(chosenFile);
-    }
 
-    public static class Indicator extends Circle {
         public final PomodoroState pomodoroState;
-        private final AnimationTimer timer;
-        private boolean isActive = false;
 
         Indicator(PomodoroState state) {
             this.pomodoroState = state;
-            int radius = switch (state) {
-                case WORKING -> 16;
-                case SHORT_BREAK -> 5;
-                case LONG_BREAK -> 8;
-            };
-            setRadius(radius);
+            setRadius(radius(state));
             setFill(state.color);
-            Glow effect = new Glow();
-            effect.setInput(new InnerShadow());
             setEffect(effect);
             Tooltip tooltip = new Tooltip(state.toString());
             setOnMouseEntered(e -> tooltip.show(this, e.getScreenX() + 20, e.getScreenY() + 16));
             setOnMouseExited(e -> tooltip.hide());
-            timer = new AnimationTimer() {
-                double time = 0.0;
-                long prev = -1;
-
-                @Override
-                public void handle(long now) {
-                    if (prev < 0) {
-                        prev = now;
-                        return;
-                    }
-                    double secs = 1e-9 * (now - prev);
-                    if (secs < 0.1) {
-                        return;
-                    }
-                    time += secs;
-                    prev = now;
-                    double f = Math.sin(2 * time % (2 * Math.PI));
-                    setOpacity(f * f);
-                }
+        }
+
+        static int radius(PomodoroState state) {
+            return switch (state) {
+                case WORKING -> 16;
+                case SHORT_BREAK -> 5;
+                case LONG_BREAK -> 8;
             };
         }
 
         void setActive(boolean isActive) {
-            if (this.isActive == isActive) {
+            if ((active == this) == isActive) {
                 return;
             }
-            this.isActive = isActive;
+            if (active != null) {
+                active.setOpacity(1.0);
+            }
+            active = isActive ? this : null;
             if (isActive) {
                 timer.start();
             } else {
                 timer.stop();
-                setOpacity(1.0);
             }
         }
     }
+
+    /**
+     * The sessions whose indicators were removed from the strip, drawn as a count per state.
+     */
+    private static class EarlierSessions extends Canvas {
+        private static final double height = 2 * Indicator.radius(PomodoroState.WORKING);
+        private final Map<PomodoroState, Integer> counts = new EnumMap<>(PomodoroState.class);
+        private final Tooltip tooltip = new Tooltip();
+
+        EarlierSessions() {
+            super(0, height);
+            Tooltip.install(this, tooltip);
+        }
+
+        void add(PomodoroState state) {
+            counts.merge(state, 1, Integer::sum);
+            setVisible(true);
+            setManaged(true);
+            draw();
+        }
+
+        private void draw() {
+            Font font = Font.font(12);
+            double width = 0;
+            for (int count : counts.values()) {
+                width += 2 * 6 + 4 + 8 * String.valueOf(count).length() + 6;
+            }
+            setWidth(width);
+            GraphicsContext gc = getGraphicsContext2D();
+            gc.clearRect(0, 0, getWidth(), getHeight());
+            gc.setFont(font);
+            gc.setTextBaseline(VPos.CENTER);
+            double x = 0;
+            StringBuilder text = new StringBuilder("Earlier sessions:");
+            for (Map.Entry<PomodoroState, Integer> entry : counts.entrySet()) {
+                gc.setFill(entry.getKey().color);
+                gc.fillOval(x, height / 2 - 6, 12, 12);
+                gc.setStroke(Color.GRAY);
+                gc.strokeOval(x, height / 2 - 6, 12, 12);
+                x += 2 * 6 + 4;
+                String count = String.valueOf(entry.getValue());
+                gc.setFill(Color.GRAY);
+                gc.fillText(count, x, height / 2);
+                x += 8 * count.length() + 6;
+                text.append("\n").append(entry.getKey()).append(": ").append(count);
+            }
+            tooltip.setText(text.toString());
+        }
+    }
 }
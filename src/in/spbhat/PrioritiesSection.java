@@ -6,31 +6,26 @@
 package in.spbhat;
 
 import in.spbhat.EditableTask.EditableTaskStatus;
+import in.spbhat.PlanChange.*;
+import in.spbhat.PlanData.TaskData;
 import in.spbhat.icons.Icon;
 import javafx.application.Platform;
-import javafx.beans.property.SimpleObjectProperty;
-import javafx.collections.ObservableList;
-import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.PrintWriter;
 import java.time.Duration;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Comparator;
-
-import static in.spbhat.Planner.sleepFor;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PrioritiesSection extends Section {
-    public static ObservableList<Node> prioritiesTaskList;
-    private static TilePane taskListPane;
+    private static ListView<TaskData> taskListView;
+    private static final TaskOrder shownTasks = new TaskOrder();
+    private static long focusRequestedTaskId = -1;
+    private static final Duration completedTaskRemovalDelay = configuredRemovalDelay();
+    private static final Map<Long, TickScheduler.Job> scheduledRemovals = new ConcurrentHashMap<>();
 
     static final int defaultExpectedDurationMinutes = 30;
     static final int defaultActualDurationMinutes = 0;
@@ -38,8 +33,16 @@ public class PrioritiesSection extends Section {
 
     public PrioritiesSection() {
         super("Priorities", createContent(), true);
-        startTaskDurationUpdateTimer();
-        startCompletedTaskRemovalThread();
+        TaskModel.subscribe(changes -> {
+            if (Platform.isFxApplicationThread()) {
+                showChanges(changes);
+            } else {
+                Platform.runLater(() -> showChanges(changes));
+            }
+        });
+        TimeTracker.start();
+        PomodoroSection.workingProperty().addListener((_, _, working) -> TimeTracker.setWorking(working));
+        TaskModel.subscribe(PrioritiesSection::scheduleCompletedTaskRemovals);
     }
 
     private static Pane createContent() {
@@ -52,27 +55,37 @@ public class PrioritiesSection extends Section {
         noteLabel.setFont(Section.notesFont);
         noteLabel.setTextFill(Color.GRAY);
 
-        taskListPane = new TilePane(Orientation.HORIZONTAL, 20, 2);
-        prioritiesTaskList = taskListPane.getChildren();
+        // only the visible rows are created, and reused while scrolling
+        taskListView = new ListView<>(shownTasks);
+        taskListView.setCellFactory(_ -> new EditableTask());
+        taskListView.setPrefHeight(400);
+        taskListView.setFocusTraversable(false);
         Button addBtn = new Button("Add", Icon.graphic("add.png", 20));
         addBtn.setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
         addBtn.setTooltip(new Tooltip("Add New Task"));
-        addBtn.setOnAction(event ->
-                addEditableTask("", EditableTaskStatus.INCOMPLETE,
-                        defaultExpectedDurationMinutes, defaultActualDurationMinutes,
-                        "")
-                        .requestFocus());
-        prioritiesTaskList.add(addBtn);
-        taskListPane.setTileAlignment(Pos.TOP_LEFT);
-
-        ScrollPane scrollPane = new ScrollPane(taskListPane);
-        scrollPane.setFitToHeight(true);
-        scrollPane.setFitToWidth(true);
-        scrollPane.setPrefViewportHeight(400);
-
-        HBox tasksArea = new HBox(scrollPane);
-        HBox.setHgrow(scrollPane, Priority.ALWAYS);
-        tasksArea.setSpacing(20);
+        addBtn.setOnAction(_ -> {
+            TaskData task = TaskModel.add("", Duration.ofMinutes(defaultExpectedDurationMinutes),
+                    Duration.ofMinutes(defaultActualDurationMinutes), defaultPriority, "");
+            int row = shownTasks.indexOfTask(task.id());
+            if (row >= 0) {
+                focusRequestedTaskId = task.id(); // taken by the row showing it
+                taskListView.scrollTo(row);
+            }
+        });
+
+        ComboBox<TaskOrder.SortMode> sortModeBox = new ComboBox<>();
+        sortModeBox.getItems().setAll(TaskOrder.SortMode.values());
+        sortModeBox.setValue(shownTasks.getSortMode());
+        sortModeBox.setTooltip(new Tooltip("Order of the tasks"));
+        sortModeBox.setOnAction(_ -> shownTasks.setSortMode(sortModeBox.getValue()));
+        Pane spacer = new Pane();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox listControls = new HBox(addBtn, spacer, new Label("Sort by: "), sortModeBox);
+        listControls.setAlignment(Pos.CENTER_LEFT);
+
+        VBox tasksArea = new VBox(taskListView, listControls);
+        VBox.setVgrow(taskListView, Priority.ALWAYS);
+        tasksArea.setSpacing(2);
 
         VBox content = new VBox(headingLabel, noteLabel, tasksArea);
         content.setAlignment(Pos.CENTER);
@@ -81,89 +94,117 @@ public class PrioritiesSection extends Section {
         return content;
     }
 
-    private void startTaskDurationUpdateTimer() {
-        Duration durationBetweenUpdates = Duration.ofSeconds(5);
-        Thread.startVirtualThread(() -> {
-            while (true) {
-                do {
-                    sleepFor(durationBetweenUpdates);
-                } while (!PomodoroSection.pomodoroRunning || PomodoroSection.currentPomodoroState != PomodoroSection.PomodoroState.WORKING);
-
-                for (Node node : prioritiesTaskList) {
-                    if (node instanceof EditableTask task && task.taskCompleted.isIndeterminate()) {
-                        SimpleObjectProperty<Duration> actualDuration = task.actualDuration;
-                        actualDuration.set(actualDuration.get().plus(durationBetweenUpdates));
-                    }
-                }
+    /**
+     * The delay after which a completed task is removed and logged, from the system property
+     * {@code planner.completedTaskRemovalDelay} (an ISO-8601 duration, e.g. PT30S), one minute by default.
+     */
+    private static Duration configuredRemovalDelay() {
+        String delay = System.getProperty("planner.completedTaskRemovalDelay");
+        if (delay != null) {
+            try {
+                Duration configured = Duration.parse(delay);
+                if (!configured.isNegative()) return configured;
+            } catch (DateTimeParseException ignore) {
+                // the default is used
             }
-        });
+            System.out.println("Invalid planner.completedTaskRemovalDelay, using 1 minute: " + delay);
+        }
+        return Duration.ofMinutes(1);
     }
 
-    private void startCompletedTaskRemovalThread() {
-        final var tasksScheduledForRemoval = new ArrayList<EditableTask>();
-        Thread.startVirtualThread(() -> {
-            while ((true)) {
-                // Remove current tasks scheduled for removal and write task to log file
-                for (EditableTask task : tasksScheduledForRemoval) {
-                    if (task.taskCompleted.isSelected()) {
-                        System.out.println("Removing task: " + task.taskField.getText());
-                        Platform.runLater(() -> prioritiesTaskList.remove(task));
-                        writeToLogFile(task);
+    // a task is removed when it has been completed for the delay, unless it is unchecked before that
+    private static void scheduleCompletedTaskRemovals(List<PlanChange> changes) {
+        for (PlanChange change : changes) {
+            switch (change) {
+                case TaskAdded(TaskData task) when task.status() == EditableTaskStatus.COMPLETE ->
+                        scheduleRemoval(task.id());
+                case TaskStatusChanged(long id, EditableTaskStatus status) -> {
+                    if (status == EditableTaskStatus.COMPLETE) {
+                        scheduleRemoval(id);
+                    } else {
+                        cancelRemoval(id);
                     }
                 }
-                tasksScheduledForRemoval.clear();
-                sleepFor(Duration.ofSeconds(1)); // Wait for the UI to remove the task
-
-                // Schedule completed tasks for removal during next cycle
-                for (Node node : prioritiesTaskList) {
-                    if (node instanceof EditableTask task) {
-                        if (task.taskCompleted.isSelected()) {
-                            System.out.println("Scheduled for removal: " + task.taskField.getText());
-                            tasksScheduledForRemoval.add(task);
-                        }
-                    }
+                case TaskRemoved(long id) -> cancelRemoval(id);
+                default -> {
                 }
+            }
+        }
+    }
 
-                sleepFor(Duration.ofMinutes(1));
+    private static void scheduleRemoval(long id) {
+        TaskModel.task(id).ifPresent(task -> System.out.println("Scheduled for removal: " + task.description()));
+        TickScheduler.Job removal = TickScheduler.once("Completed task removal", completedTaskRemovalDelay,
+                Duration.ofSeconds(1), TickScheduler.schedulerThread, () -> removeCompletedTask(id));
+        TickScheduler.Job replaced = scheduledRemovals.put(id, removal);
+        if (replaced != null) replaced.cancel();
+    }
+
+    private static void cancelRemoval(long id) {
+        TickScheduler.Job removal = scheduledRemovals.remove(id);
+        if (removal != null) removal.cancel();
+    }
+
+    private static void removeCompletedTask(long id) {
+        TaskData removed;
+        synchronized (TaskModel.class) { // not unchecked in between
+            removed = TaskModel.task(id).filter(task -> task.status() == EditableTaskStatus.COMPLETE).orElse(null);
+            if (removed == null) {
+                return;
             }
-        });
+            System.out.println("Removing task: " + removed.description());
+            TaskModel.remove(id);
+        }
+        writeToLogFile(removed);
     }
 
-    public static void writeToLogFile(EditableTask task) {
-        if (!task.taskCompleted.isSelected()) { // write only if completed
+    public static void writeToLogFile(TaskData task) {
+        if (task.status() != EditableTaskStatus.COMPLETE) { // write only if completed
             return;
         }
-        Duration taskDuration = task.actualDuration.get();
-        String logMessage = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
-                + " : Completed '" + task.taskField.getText() + "'"
-                + " in "
-                + "%02dh:%02dm:%02ds".formatted(
-                taskDuration.toHoursPart(),
-                taskDuration.toMinutesPart(),
-                taskDuration.toSecondsPart())
-                + (task.notes.isBlank() ? "" : "\n  Notes:\n" + task.notes.indent(4));
-        System.out.println("Logging:\n  " + logMessage);
-        File taskCompletionLogFile = new File("plans", Planner.todayDateString + ".log");
-        try (var taskCompletionLogWriter = new FileWriter(taskCompletionLogFile, true);
-             var logWriter = new PrintWriter(taskCompletionLogWriter)) {
-            logWriter.println(logMessage);
-        } catch (Exception ignore) {
-        }
+        LogRecord logRecord = LogRecord.of(task);
+        System.out.println("Logging:\n  " + logRecord);
+        CompletionLog.append(logRecord.toJson());
+        TaskAnalytics.recordCompletion(logRecord);
     }
 
-    public static EditableTask addEditableTask(String description, EditableTaskStatus status,
-                                               int expectedDurationMinutes, int actualDurationMinutes,
-                                               String notes) {
-        EditableTask newTask = new EditableTask(taskListPane, description, status, expectedDurationMinutes, actualDurationMinutes, notes);
-        prioritiesTaskList.add(taskListPane.getChildren().size() - 1, newTask);
-        return newTask;
+    // shows the tasks as they are in the model now, so the batches may be shown late or together
+    private static void showChanges(List<PlanChange> changes) {
+        if (changes.size() > 100) { // e.g. a plan loaded
+            shownTasks.setAll(TaskModel.tasks());
+            return;
+        }
+        Set<Long> changedIds = new HashSet<>();
+        for (PlanChange change : changes) {
+            switch (change) {
+                case TaskAdded added -> changedIds.add(added.task().id());
+                case TaskRemoved removed -> changedIds.add(removed.id());
+                case TaskStatusChanged changed -> changedIds.add(changed.id());
+                case TaskTextChanged changed -> changedIds.add(changed.id());
+                case TaskDurationsChanged changed -> changedIds.add(changed.id());
+                case TaskPriorityChanged changed -> changedIds.add(changed.id());
+                case TaskNotesChanged changed -> changedIds.add(changed.id());
+                default -> {
+                }
+            }
+        }
+        // only the changed tasks are updated, and moved if they are no longer in order
+        for (TaskData task : TaskModel.tasks()) {
+            if (changedIds.remove(task.id())) {
+                shownTasks.put(task);
+            }
+        }
+        changedIds.forEach(shownTasks::remove); // no longer in the model
     }
 
-    public static void sortByPriority() {
-        Comparator<Node> comparator = Comparator.comparing(node -> {
-            if (node instanceof EditableTask task) return task.priority;
-            else return 10;
-        });
-        prioritiesTaskList.setAll(prioritiesTaskList.sorted(comparator));
+    /**
+     * @return true once, for the row showing the task just added, which then takes the focus
+     */
+    static boolean takeFocusRequest(long taskId) {
+        if (taskId != focusRequestedTaskId) {
+            return false;
+        }
+        focusRequestedTaskId = -1;
+        return true;
     }
 }
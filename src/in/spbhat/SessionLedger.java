@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import in.spbhat.PomodoroEngine.SessionEnd;
+import in.spbhat.PomodoroSection.PomodoroState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Records the Pomodoro sessions of each day in an append-only file, {@code plans/<date>.sessions}.
+ * <p>
+ * Each session is a fixed size record of {@value #RECORD_SIZE} bytes: the state, whether it was finished early,
+ * the number of pauses, the start time, and the running and paused times.
+ * The totals of each day are kept in {@code plans/sessions.totals}, one fixed size row per day which is
+ * updated in place when a session is recorded, so the statistics of a day are read without reading its sessions.
+ * A day whose totals do not count all of its sessions (e.g. after a crash in between) is summed up again
+ * from its sessions when the totals are loaded.
+ */
+public class SessionLedger {
+    private static final int MAGIC = 0x50534553; // "PSES"
+    private static final int TOTALS_MAGIC = 0x5053544F; // "PSTO"
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 5;
+    private static final int RECORD_SIZE = 20;
+    private static final int ROW_SIZE = 36;
+
+    private static final Path plansDir = Path.of("plans");
+    private static Map<Long, Row> totalsByDay; // loaded on first use
+    private static int numRows;
+
+    /**
+     * A recorded session.
+     */
+    public record Session(PomodoroState state, Instant start, Duration active, Duration paused,
+                          int pauses, boolean finishedEarly) {
+        public Instant end() {
+            return start.plus(active).plus(paused);
+        }
+    }
+
+    /**
+     * Totals of the sessions of a day.
+     *
+     * @param pauses        pauses of the working sessions
+     * @param finishedEarly working sessions finished early
+     */
+    public record DayTotals(LocalDate date, int workingSessions, int breakSessions, int pauses, int finishedEarly,
+                            Duration focus, Duration breaks) {
+        public double interruptionsPerSession() {
+            return workingSessions == 0 ? 0 : (double) (pauses + finishedEarly) / workingSessions;
+        }
+    }
+
+    private static class Row {
+        final int index; // position in the totals file
+        int workingSessions, breakSessions, pauses, finishedEarly;
+        long focusMillis, breakMillis;
+
+        Row(int index) {
+            this.index = index;
+        }
+
+        void add(Session session) {
+            if (session.state() == PomodoroState.WORKING) {
+                workingSessions++;
+                pauses += session.pauses();
+                if (session.finishedEarly()) finishedEarly++;
+                focusMillis += session.active().toMillis();
+            } else {
+                breakSessions++;
+                breakMillis += session.active().toMillis();
+            }
+        }
+
+        int numSessions() {
+            return workingSessions + breakSessions;
+        }
+    }
+
+    /**
+     * Records the session which has just ended, on the writer thread.
+     * A session which was never started is not recorded.
+     */
+    public static CompletableFuture<Void> record(SessionEnd ended) {
+        if (ended.active().isZero()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Instant start = Instant.now().minus(ended.active()).minus(ended.paused());
+        return record(new Session(ended.state(), start, ended.active(), ended.paused(), ended.pauses(),
+                ended.finishedEarly()));
+    }
+
+    public static CompletableFuture<Void> record(Session session) {
+        return PlanWriter.submit(() -> {
+            append(session);
+            return null;
+        });
+    }
+
+    /**
+     * @return the totals of the day, all zero if no session was recorded on it
+     */
+    public static synchronized DayTotals totals(LocalDate date) throws IOException {
+        loadTotals();
+        Row row = totalsByDay.get(date.toEpochDay());
+        if (row == null) {
+            return new DayTotals(date, 0, 0, 0, 0, Duration.ZERO, Duration.ZERO);
+        }
+        return new DayTotals(date, row.workingSessions, row.breakSessions, row.pauses, row.finishedEarly,
+                Duration.ofMillis(row.focusMillis), Duration.ofMillis(row.breakMillis));
+    }
+
+    /**
+     * @return the sessions recorded on the day, in the order they ended
+     */
+    public static List<Session> read(LocalDate date) throws IOException {
+        List<Session> sessions = new ArrayList<>();
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(PlanArchive.readAllBytes(sessionsFile(date)));
+        } catch (NoSuchFileException e) {
+            return sessions;
+        }
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a sessions file: " + sessionsFile(date));
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported sessions file version: " + version);
+        }
+        PomodoroState[] states = PomodoroState.values();
+        while (buffer.remaining() >= RECORD_SIZE) { // an incomplete last record is ignored
+            PomodoroState state = states[buffer.get()];
+            boolean finishedEarly = buffer.get() != 0;
+            int pauses = buffer.getShort() & 0xFFFF;
+            Instant start = Instant.ofEpochMilli(buffer.getLong());
+            Duration active = Duration.ofMillis(buffer.getInt() & 0xFFFFFFFFL);
+            Duration paused = Duration.ofMillis(buffer.getInt() & 0xFFFFFFFFL);
+            sessions.add(new Session(state, start, active, paused, pauses, finishedEarly));
+        }
+        return sessions;
+    }
+
+    private static Path sessionsFile(LocalDate date) {
+        return plansDir.resolve(date.format(Planner.dateFormatter) + ".sessions");
+    }
+
+    private static Path totalsFile() {
+        return plansDir.resolve("sessions.totals");
+    }
+
+    private static LocalDate dateOf(Session session) {
+        return LocalDate.ofInstant(session.start(), ZoneId.systemDefault());
+    }
+
+    // on the writer thread
+    private static synchronized void append(Session session) throws IOException {
+        loadTotals(); // before the session is in its file
+        Path file = sessionsFile(dateOf(session));
+        Files.createDirectories(file.getParent());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + RECORD_SIZE);
+            if (channel.size() == 0) {
+                buffer.putInt(MAGIC).put(VERSION);
+            }
+            buffer.put((byte) session.state().ordinal())
+                    .put((byte) (session.finishedEarly() ? 1 : 0))
+                    .putShort((short) Math.min(session.pauses(), 0xFFFF))
+                    .putLong(session.start().toEpochMilli())
+                    .putInt((int) Math.min(session.active().toMillis(), 0xFFFFFFFFL))
+                    .putInt((int) Math.min(session.paused().toMillis(), 0xFFFFFFFFL))
+                    .flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        long day = dateOf(session).toEpochDay();
+        Row row = totalsByDay.computeIfAbsent(day, _ -> new Row(numRows++));
+        row.add(session);
+        writeRow(day, row);
+    }
+
+    private static void loadTotals() throws IOException {
+        if (totalsByDay != null) {
+            return;
+        }
+        Map<Long, Row> rows = new HashMap<>();
+        int count = 0;
+        Path file = totalsFile();
+        if (Files.exists(file)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buffer.remaining() >= HEADER_SIZE && buffer.getInt() == TOTALS_MAGIC && buffer.get() == VERSION) {
+                while (buffer.remaining() >= ROW_SIZE) {
+                    long day = buffer.getInt();
+                    Row row = new Row(count++);
+                    row.workingSessions = buffer.getInt();
+                    row.breakSessions = buffer.getInt();
+                    row.pauses = buffer.getInt();
+                    row.finishedEarly = buffer.getInt();
+                    row.focusMillis = buffer.getLong();
+                    row.breakMillis = buffer.getLong();
+                    rows.put(day, row);
+                }
+            } else {
+                System.out.println("Rebuilding the session totals, unable to read: " + file);
+                Files.delete(file);
+            }
+        }
+        totalsByDay = rows;
+        numRows = count;
+        if (count == 0) { // the archived days too
+            for (PlanArchive.ArchivedFile archived : PlanArchive.list(plansDir)) {
+                if (archived.name().endsWith(".sessions")) {
+                    sumUpIfIncomplete(plansDir.resolve(archived.name()));
+                }
+            }
+        }
+        // the sessions not in the totals, only the days not archived yet can have any
+        if (Files.isDirectory(plansDir)) {
+            try (var files = Files.list(plansDir)) {
+                for (Path sessionsFile : files.filter(f -> f.toString().endsWith(".sessions")).toList()) {
+                    sumUpIfIncomplete(sessionsFile);
+                }
+            }
+        }
+    }
+
+    private static void sumUpIfIncomplete(Path sessionsFile) throws IOException {
+        LocalDate date = PlanArchive.dateOf(sessionsFile);
+        if (date == null) {
+            return;
+        }
+        Row row = totalsByDay.get(date.toEpochDay());
+        if (Files.exists(sessionsFile)) { // not archived, the number of sessions is known from the size
+            long numSessions = Math.max(0, Files.size(sessionsFile) - HEADER_SIZE) / RECORD_SIZE;
+            if (row != null && row.numSessions() == numSessions) {
+                return;
+            }
+        } else if (row != null) {
+            return;
+        }
+        Row summed = new Row(row == null ? numRows++ : row.index);
+        read(date).forEach(summed::add);
+        totalsByDay.put(date.toEpochDay(), summed);
+        writeRow(date.toEpochDay(), summed);
+    }
+
+    private static void writeRow(long day, Row row) throws IOException {
+        Path file = totalsFile();
+        Files.createDirectories(file.getParent());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_SIZE) {
+                channel.write(ByteBuffer.allocate(HEADER_SIZE).putInt(TOTALS_MAGIC).put(VERSION).flip(), 0);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(ROW_SIZE)
+                    .putInt((int) day)
+                    .putInt(row.workingSessions)
+                    .putInt(row.breakSessions)
+                    .putInt(row.pauses)
+                    .putInt(row.finishedEarly)
+                    .putLong(row.focusMillis)
+                    .putLong(row.breakMillis)
+                    .flip();
+            long position = HEADER_SIZE + (long) row.index * ROW_SIZE;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores the snapshots of the plan window, saved every day, without repeating the common parts.
+ * <p>
+ * The images are split into tiles of {@value #tileSize} x {@value #tileSize} pixels.
+ * Each unique tile is compressed and appended once to {@code plans/snapshots/tiles.pack},
+ * identified by the hash of its pixels. The snapshot of a day, {@code plans/snapshots/<date>.snap},
+ * only lists the hashes of its tiles, so the parts of the window that did not change since an earlier save
+ * (usually most of it) take no space. The image of any day is rebuilt from its tiles when needed.
+ * <p>
+ * The pack is only appended to, and synced before the snapshot referring to the new tiles is written.
+ * An incomplete tile at the end of the pack, from a crash while saving, is dropped on opening.
+ */
+public class SnapshotStore {
+    private static final int MAGIC = 0x534E4150; // "SNAP"
+    private static final int VERSION = 1;
+    private static final int tileSize = 64;
+    // hash, width, height and length of the compressed pixels
+    private static final int TILE_HEADER_SIZE = 16 + 2 + 2 + 4;
+
+    private static final Path snapshotsDir = Path.of("plans", "snapshots");
+    private static FileChannel pack;
+    // tile hash -> position of the tile in the pack
+    private static final Map<TileKey, TileLocation> tiles = new HashMap<>();
+
+    private record TileKey(long high, long low) {
+        static TileKey of(byte[] hash) {
+            ByteBuffer buffer = ByteBuffer.wrap(hash);
+            return new TileKey(buffer.getLong(), buffer.getLong());
+        }
+    }
+
+    private record TileLocation(long position, int width, int height, int compressedLength) {
+    }
+
+    /**
+     * @param skipped        the snapshot was the same as the saved one, nothing was written
+     * @param bytesWritten   compressed size of the new tiles and the size of the snapshot file
+     * @param bytesSaved     compressed size of the tiles which were already stored
+     */
+    public record SaveResult(boolean skipped, int tiles, int newTiles, long bytesWritten, long bytesSaved) {
+        @Override
+        public String toString() {
+            return skipped ? "unchanged, not written"
+                    : "%d of %d tiles new, %d KB written, %d KB saved".formatted(
+                    newTiles, tiles, bytesWritten / 1024, bytesSaved / 1024);
+        }
+    }
+
+    public record Snapshot(int width, int height, int[] argbPixels) {
+    }
+
+    /**
+     * Saves the snapshot of the day on the writer thread, see {@link PlanWriter}.
+     *
+     * @param argbPixels pixels of the image in the INT_ARGB format, row by row
+     */
+    public static CompletableFuture<SaveResult> save(LocalDate date, int width, int height, int[] argbPixels) {
+        return PlanWriter.submit(() -> saveNow(date, width, height, argbPixels));
+    }
+
+    private static synchronized SaveResult saveNow(LocalDate date, int width, int height, int[] argbPixels)
+            throws IOException {
+        openPack();
+        Path snapshotFile = snapshotFile(date);
+        byte[] imageHash = hashImage(width, height, argbPixels);
+        if (Files.exists(snapshotFile) && Arrays.equals(imageHash, readImageHash(snapshotFile))) {
+            return new SaveResult(true, 0, 0, 0, 0);
+        }
+
+        int columns = Math.ceilDiv(width, tileSize);
+        int rows = Math.ceilDiv(height, tileSize);
+        List<TileKey> keys = new ArrayList<>(columns * rows);
+        int newTiles = 0;
+        long bytesWritten = 0, bytesSaved = 0;
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        MessageDigest digest = sha256();
+        try {
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    int x = column * tileSize, y = row * tileSize;
+                    int tileWidth = Math.min(tileSize, width - x);
+                    int tileHeight = Math.min(tileSize, height - y);
+                    ByteBuffer tilePixels = ByteBuffer.allocate(tileWidth * tileHeight * 4);
+                    IntBuffer tileInts = tilePixels.asIntBuffer();
+                    for (int ty = 0; ty < tileHeight; ty++) {
+                        tileInts.put(argbPixels, (y + ty) * width + x, tileWidth);
+                    }
+                    digest.reset();
+                    digest.update((byte) tileWidth);
+                    digest.update((byte) tileHeight);
+                    digest.update(tilePixels.duplicate());
+                    TileKey key = TileKey.of(digest.digest());
+                    keys.add(key);
+
+                    TileLocation stored = tiles.get(key);
+                    if (stored != null) {
+                        bytesSaved += stored.compressedLength;
+                        continue;
+                    }
+                    bytesWritten += appendTile(key, tileWidth, tileHeight, tilePixels.array(), deflater);
+                    newTiles++;
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+        if (newTiles > 0) {
+            pack.force(false); // tiles must be on the disk before the snapshot referring to them
+        }
+
+        ByteBuffer snapshot = ByteBuffer.allocate(4 * 5 + imageHash.length + 4 + keys.size() * 16);
+        snapshot.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putInt(tileSize);
+        snapshot.put(imageHash);
+        snapshot.putInt(keys.size());
+        for (TileKey key : keys) {
+            snapshot.putLong(key.high).putLong(key.low);
+        }
+        snapshot.flip();
+        bytesWritten += snapshot.remaining();
+        PlanWriter.writeAtomically(snapshotFile, channel -> {
+            while (snapshot.hasRemaining()) {
+                channel.write(snapshot);
+            }
+        });
+        return new SaveResult(false, keys.size(), newTiles, bytesWritten, bytesSaved);
+    }
+
+    private static long appendTile(TileKey key, int width, int height, byte[] pixels, Deflater deflater)
+            throws IOException {
+        deflater.reset();
+        deflater.setInput(pixels);
+        deflater.finish();
+        byte[] compressed = new byte[pixels.length + 64];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        ByteBuffer record = ByteBuffer.allocate(TILE_HEADER_SIZE + length);
+        record.putLong(key.high).putLong(key.low)
+                .putShort((short) width).putShort((short) height)
+                .putInt(length)
+                .put(compressed, 0, length)
+                .flip();
+        long position = pack.size();
+        while (record.hasRemaining()) {
+            pack.write(record, position + record.position());
+        }
+        tiles.put(key, new TileLocation(position, width, height, length));
+        return record.capacity();
+    }
+
+    /**
+     * Rebuilds the snapshot of the day.
+     *
+     * @throws NoSuchFileException if no snapshot was saved on that day
+     */
+    public static synchronized Snapshot load(LocalDate date) throws IOException {
+        Path snapshotFile = snapshotFile(date);
+        ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(snapshotFile));
+        if (snapshot.remaining() < 4 * 5 || snapshot.getInt() != MAGIC || snapshot.getInt() != VERSION) {
+            throw new IOException("Not a snapshot file: " + snapshotFile);
+        }
+        openPack();
+        int width = snapshot.getInt();
+        int height = snapshot.getInt();
+        int storedTileSize = snapshot.getInt();
+        snapshot.position(snapshot.position() + 32); // image hash
+        int numTiles = snapshot.getInt();
+        int columns = Math.ceilDiv(width, storedTileSize);
+        if (numTiles != columns * Math.ceilDiv(height, storedTileSize)) {
+            throw new IOException("Corrupt snapshot file: " + snapshotFile);
+        }
+
+        int[] pixels = new int[width * height];
+        Inflater inflater = new Inflater();
+        try {
+            for (int t = 0; t < numTiles; t++) {
+                TileLocation tile = tiles.get(new TileKey(snapshot.getLong(), snapshot.getLong()));
+                if (tile == null) {
+                    throw new IOException("Missing tile %d of snapshot: %s".formatted(t, snapshotFile));
+                }
+                ByteBuffer compressed = ByteBuffer.allocate(tile.compressedLength);
+                readFully(compressed, tile.position + TILE_HEADER_SIZE);
+                inflater.reset();
+                inflater.setInput(compressed.array());
+                byte[] tileBytes = new byte[tile.width * tile.height * 4];
+                if (inflater.inflate(tileBytes) != tileBytes.length) {
+                    throw new IOException("Corrupt tile %d of snapshot: %s".formatted(t, snapshotFile));
+                }
+                IntBuffer tilePixels = ByteBuffer.wrap(tileBytes).asIntBuffer();
+                int x = (t % columns) * storedTileSize, y = (t / columns) * storedTileSize;
+                for (int ty = 0; ty < tile.height; ty++) {
+                    tilePixels.get(pixels, (y + ty) * width + x, tile.width);
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt tile in snapshot: " + snapshotFile, e);
+        } finally {
+            inflater.end();
+        }
+        return new Snapshot(width, height, pixels);
+    }
+
+    /**
+     * @return true if a snapshot was saved on that day
+     */
+    public static boolean exists(LocalDate date) {
+        return Files.exists(snapshotFile(date));
+    }
+
+    public static Path snapshotFile(LocalDate date) {
+        return snapshotsDir.resolve(date.format(Planner.dateFormatter) + ".snap");
+    }
+
+    private static byte[] readImageHash(Path snapshotFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            ByteBuffer hash = ByteBuffer.allocate(32);
+            channel.read(hash, 4 * 5);
+            return hash.array();
+        }
+    }
+
+    private static byte[] hashImage(int width, int height, int[] argbPixels) {
+        MessageDigest digest = sha256();
+        ByteBuffer row = ByteBuffer.allocate(width * 4);
+        digest.update(ByteBuffer.allocate(8).putInt(width).putInt(height).flip());
+        for (int y = 0; y < height; y++) {
+            row.clear();
+            row.asIntBuffer().put(argbPixels, y * width, width);
+            digest.update(row);
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Opens the pack and reads the headers of its tiles, skipping the pixels.
+     */
+    private static void openPack() throws IOException {
+        if (pack != null) {
+            return;
+        }
+        Files.createDirectories(snapshotsDir);
+        FileChannel channel = FileChannel.open(snapshotsDir.resolve("tiles.pack"), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(TILE_HEADER_SIZE);
+        long position = 0, size = channel.size();
+        while (position + TILE_HEADER_SIZE <= size) {
+            header.clear();
+            while (header.hasRemaining() && channel.read(header, position + header.position()) >= 0) {
+                // read until full
+            }
+            header.flip();
+            TileKey key = new TileKey(header.getLong(), header.getLong());
+            int width = header.getShort(), height = header.getShort(), length = header.getInt();
+            if (length < 0 || position + TILE_HEADER_SIZE + length > size) {
+                break;
+            }
+            tiles.put(key, new TileLocation(position, width, height, length));
+            position += TILE_HEADER_SIZE + length;
+        }
+        if (position < size) {
+            System.out.println("Dropping incomplete tile at the end of the snapshot pack");
+            channel.truncate(position);
+        }
+        pack = channel;
+    }
+
+    private static void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (pack.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of the snapshot pack");
+            }
+        }
+    }
+
+    /**
+     * Imports the PNG snapshots in the plans directory into the store.
+     * A PNG file is deleted only after its image is rebuilt from the store without any difference.
+     */
+    public static void main(String[] args) throws Exception {
+        List<Path> images;
+        try (Stream<Path> files = Files.list(Path.of("plans"))) {
+            images = files.filter(file -> file.toString().endsWith(".png"))
+                    .filter(file -> PlanArchive.dateOf(file) != null)
+                    .sorted()
+                    .toList();
+        }
+        long pngBytes = 0, storedBytes = 0;
+        for (Path file : images) {
+            LocalDate date = PlanArchive.dateOf(file);
+            BufferedImage image = ImageIO.read(file.toFile());
+            if (image == null || exists(date)) {
+                System.out.println("Skipped: " + file);
+                continue;
+            }
+            int width = image.getWidth(), height = image.getHeight();
+            int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+            SaveResult result = saveNow(date, width, height, pixels);
+            if (!Arrays.equals(load(date).argbPixels, pixels)) {
+                System.out.println("Kept, rebuilt image differs: " + file);
+                continue;
+            }
+            pngBytes += Files.size(file);
+            storedBytes += result.bytesWritten;
+            Files.delete(file);
+            System.out.println("Imported: " + file + " (" + result + ")");
+        }
+        System.out.printf("Imported %d KB of PNG files in %d KB%n", pngBytes / 1024, storedBytes / 1024);
+    }
+}
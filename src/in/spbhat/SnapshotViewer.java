@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Window showing the snapshot of the plan saved on a day, rebuilt from the {@link SnapshotStore}.
+ * The PNG files saved by the earlier versions are shown as they are.
+ */
+public class SnapshotViewer extends Stage {
+    private final DatePicker datePicker = new DatePicker(LocalDate.now());
+    private final ImageView imageView = new ImageView();
+    private final Label status = new Label();
+    private final Button exportBtn = new Button("Export PNG...");
+    private SnapshotStore.Snapshot shown;
+
+    public SnapshotViewer() {
+        datePicker.valueProperty().addListener((_, _, date) -> {
+            if (date != null) show(date);
+        });
+        exportBtn.setOnAction(_ -> exportPng());
+        exportBtn.setDisable(true);
+        HBox toolBar = new HBox(datePicker, exportBtn, status);
+        toolBar.setSpacing(5);
+        toolBar.setAlignment(Pos.CENTER_LEFT);
+
+        ScrollPane imagePane = new ScrollPane(imageView);
+        VBox.setVgrow(imagePane, Priority.ALWAYS);
+        VBox root = new VBox(toolBar, imagePane);
+        root.setSpacing(5);
+        root.setPadding(new Insets(10));
+
+        setScene(new Scene(root, 900, 700));
+        setTitle("Saved Snapshots");
+        show(datePicker.getValue());
+    }
+
+    private void show(LocalDate date) {
+        imageView.setImage(null);
+        exportBtn.setDisable(true);
+        shown = null;
+        status.setText("Loading...");
+        Thread.startVirtualThread(() -> {
+            try {
+                if (SnapshotStore.exists(date)) {
+                    long start = System.nanoTime();
+                    SnapshotStore.Snapshot snapshot = SnapshotStore.load(date);
+                    long millis = (System.nanoTime() - start) / 1_000_000;
+                    Platform.runLater(() -> {
+                        if (!date.equals(datePicker.getValue())) return;
+                        WritableImage image = new WritableImage(snapshot.width(), snapshot.height());
+                        image.getPixelWriter().setPixels(0, 0, snapshot.width(), snapshot.height(),
+                                PixelFormat.getIntArgbInstance(), snapshot.argbPixels(), 0, snapshot.width());
+                        imageView.setImage(image);
+                        shown = snapshot;
+                        exportBtn.setDisable(false);
+                        status.setText("Rebuilt in %d ms".formatted(millis));
+                    });
+                    return;
+                }
+                // saved by an earlier version
+                Path pngFile = Path.of("plans", date.format(Planner.dateFormatter) + ".png");
+                Image image = new Image(new ByteArrayInputStream(PlanArchive.readAllBytes(pngFile)));
+                Platform.runLater(() -> {
+                    if (!date.equals(datePicker.getValue())) return;
+                    imageView.setImage(image);
+                    status.setText(pngFile.toString());
+                });
+            } catch (NoSuchFileException e) {
+                Platform.runLater(() -> status.setText("No snapshot saved on " + date));
+            } catch (Exception e) {
+                e.printStackTrace();
+                Platform.runLater(() -> status.setText("Unable to load the snapshot: " + e.getMessage()));
+            }
+        });
+    }
+
+    private void exportPng() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Snapshot");
+        chooser.setInitialFileName(datePicker.getValue().format(Planner.dateFormatter) + ".png");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PNG image", "*.png"));
+        File file = chooser.showSaveDialog(this);
+        if (file == null || shown == null) {
+            return;
+        }
+        PlanWriter.saveImage(shown.width(), shown.height(), shown.argbPixels(), file.toPath())
+                .whenComplete((_, error) -> Platform.runLater(() -> status.setText(error == null
+                        ? "Exported: " + file : "Unable to export: " + error.getMessage())));
+    }
+}
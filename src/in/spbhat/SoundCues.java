@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import javafx.beans.value.ObservableDoubleValue;
+import javafx.scene.media.AudioClip;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Short notification sounds, decoded once into memory so that they start without delay.
+ * <p>
+ * A cue can be played while another cue or the background sound is playing, and again while it is still playing.
+ * The cues are loaded in the background by {@link #preload()} when the application starts,
+ * a cue played before that is loaded when it is played.
+ */
+public class SoundCues {
+    public enum Cue {
+        QUESTION("sounds/dialog-question.mp3", 20),
+        SESSION_END("sounds/ring.mp3", 20);
+
+        private final String resource;
+        private final double gain;
+
+        /**
+         * @param gain volume of the cue relative to the sound level, at most full volume
+         */
+        Cue(String resource, double gain) {
+            this.resource = resource;
+            this.gain = gain;
+        }
+    }
+
+    private static final Map<Cue, AudioClip> clips = new EnumMap<>(Cue.class);
+    private static ObservableDoubleValue soundLevel; // 0 to 100, full volume if not set
+
+    /**
+     * Decodes all the cues on a background thread.
+     */
+    public static void preload() {
+        Thread.ofVirtual().name("Sound Cue Loader").start(() -> {
+            for (Cue cue : Cue.values()) {
+                clip(cue);
+            }
+        });
+    }
+
+    /**
+     * The cues follow the sound level of the background sounds: at the default level of 5
+     * they play at full volume, and get softer below it.
+     */
+    public static synchronized void setSoundLevel(ObservableDoubleValue level) {
+        soundLevel = level;
+    }
+
+    public static void play(Cue cue) {
+        double volume;
+        synchronized (SoundCues.class) {
+            volume = soundLevel == null ? 1 : Math.min(1, cue.gain * soundLevel.get() / 100);
+        }
+        try {
+            clip(cue).play(volume);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static synchronized AudioClip clip(Cue cue) {
+        return clips.computeIfAbsent(cue, _ -> new AudioClip(Objects.requireNonNull(
+                SoundCues.class.getResource(cue.resource)).toString()));
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import in.spbhat.PomodoroSection.PomodoroState;
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.beans.binding.DoubleExpression;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Plays the background sounds of the Pomodoro sessions, picking the mp3 files of the session's folder at random.
+ * <p>
+ * The folders are listed once, and watched for added or removed files. The next track of each folder is
+ * loaded ahead, while the current one plays, so starting a session or the next track does not wait for
+ * the file to be read. The tracks crossfade into each other, and a paused track is resumed where it was.
+ * <p>
+ * To be used on the JavaFX Application Thread.
+ */
+public class SoundPlaylist {
+    private static final Duration crossfade = Duration.seconds(4);
+    private static final String CROSSFADE_MARKER = "crossfade";
+
+    public enum Category {
+        WORKING("sounds/working/"), BREAK("sounds/break/");
+
+        private final Path dir;
+
+        Category(String dir) {
+            this.dir = Path.of(dir);
+        }
+
+        public static Category of(PomodoroState state) {
+            return state == PomodoroState.WORKING ? WORKING : BREAK;
+        }
+    }
+
+    private final DoubleExpression volume;
+    private final Random random = new Random();
+    private final Map<Category, List<Path>> tracks = new ConcurrentHashMap<>();
+    private final Map<Category, Track> preloaded = new EnumMap<>(Category.class);
+    private Track current;
+    private Thread watcher;
+
+    private class Track {
+        final Category category;
+        final Path file;
+        final MediaPlayer player;
+        final SimpleDoubleProperty fade = new SimpleDoubleProperty(1);
+        Timeline fading;
+
+        Track(Category category, Path file) {
+            this.category = category;
+            this.file = file;
+            player = new MediaPlayer(new Media(file.toUri().toString()));
+            player.volumeProperty().bind(volume.multiply(fade));
+            player.setOnReady(() -> {
+                Duration duration = player.getMedia().getDuration();
+                if (duration.greaterThan(crossfade.multiply(2))) {
+                    player.getMedia().getMarkers().put(CROSSFADE_MARKER, duration.subtract(crossfade));
+                }
+            });
+            player.setOnMarker(event -> {
+                if (CROSSFADE_MARKER.equals(event.getMarker().getKey()) && current == this) {
+                    next(crossfade);
+                }
+            });
+            player.setOnEndOfMedia(() -> {
+                if (current == this) next(Duration.ZERO); // too short for a crossfade
+            });
+            player.setOnError(() -> {
+                System.out.println("Unable to play: " + file + ", " + player.getError());
+                if (current == this) {
+                    current = null;
+                    tracks.computeIfPresent(category, (_, files) -> files.stream().filter(f -> !f.equals(file)).toList());
+                    play(category);
+                } else if (preloaded.get(category) == this) {
+                    preloaded.remove(category);
+                }
+                dispose();
+            });
+        }
+
+        void fadeTo(double target, Duration duration, Runnable onFinished) {
+            if (fading != null) fading.stop();
+            fading = new Timeline(new KeyFrame(duration, new KeyValue(fade, target)));
+            fading.setOnFinished(_ -> {
+                fading = null;
+                onFinished.run();
+            });
+            fading.play();
+        }
+
+        void dispose() {
+            if (fading != null) fading.stop();
+            player.volumeProperty().unbind();
+            player.dispose();
+        }
+    }
+
+    /**
+     * @param volume from 0 to 1
+     */
+    public SoundPlaylist(DoubleExpression volume) {
+        this.volume = volume;
+    }
+
+    /**
+     * Resumes the track of the category if it was paused, or starts a track of the category.
+     */
+    public void play(Category category) {
+        startWatching();
+        if (current != null && current.category == category) {
+            current.player.play();
+            return;
+        }
+        Track previous = current;
+        current = take(category);
+        if (previous != null) {
+            fadeOut(previous, crossfade.divide(4));
+        }
+        if (current == null) {
+            return;
+        }
+        current.fade.set(0);
+        current.player.play();
+        current.fadeTo(1, crossfade.divide(4), () -> {
+        });
+        preloadAll();
+    }
+
+    /**
+     * Pauses the current track, to be resumed by {@link #play(Category)}.
+     */
+    public void stop() {
+        if (current != null) {
+            current.player.pause();
+        }
+    }
+
+    private void next(Duration fade) {
+        Track previous = current;
+        current = take(previous.category);
+        fadeOut(previous, fade);
+        if (current == null) {
+            return;
+        }
+        current.fade.set(fade.greaterThan(Duration.ZERO) ? 0 : 1);
+        current.player.play();
+        if (fade.greaterThan(Duration.ZERO)) current.fadeTo(1, fade, () -> {
+        });
+        preloadAll();
+    }
+
+    private void fadeOut(Track track, Duration fade) {
+        if (track.player.getStatus() != MediaPlayer.Status.PLAYING || fade.lessThanOrEqualTo(Duration.ZERO)) {
+            track.dispose();
+            return;
+        }
+        track.fadeTo(0, fade, track::dispose);
+    }
+
+    // the preloaded track of the category, or a new one if none is loaded
+    private Track take(Category category) {
+        Track track = preloaded.remove(category);
+        if (track != null) {
+            return track;
+        }
+        Path file = pick(category, null);
+        return file == null ? null : new Track(category, file);
+    }
+
+    private void preloadAll() {
+        for (Category category : Category.values()) {
+            if (preloaded.containsKey(category)) continue;
+            Path file = pick(category, current != null && current.category == category ? current.file : null);
+            if (file != null) {
+                preloaded.put(category, new Track(category, file));
+            }
+        }
+    }
+
+    /**
+     * @param except not picked if there is another file
+     */
+    private Path pick(Category category, Path except) {
+        List<Path> files = tracks.computeIfAbsent(category, SoundPlaylist::list);
+        if (files.isEmpty()) {
+            System.out.println("Unable to locate mp3 files in the folder: " + category.dir.toAbsolutePath());
+            return null;
+        }
+        Path file = files.get(random.nextInt(files.size()));
+        if (file.equals(except) && files.size() > 1) {
+            file = files.get((files.indexOf(file) + 1 + random.nextInt(files.size() - 1)) % files.size());
+        }
+        System.out.println("Sound file:" + file.toAbsolutePath());
+        return file;
+    }
+
+    private static List<Path> list(Category category) {
+        if (!Files.isDirectory(category.dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(category.dir)) {
+            return files.filter(file -> file.toString().endsWith(".mp3")).sorted().toList();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return List.of();
+        }
+    }
+
+    /**
+     * Lists a folder again when its files change, and drops the preloaded track if its file was removed.
+     */
+    private void startWatching() {
+        if (watcher != null) {
+            return;
+        }
+        watcher = Thread.ofVirtual().name("Sound Folder Watcher").start(() -> {
+            try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+                Map<WatchKey, Category> categories = new ConcurrentHashMap<>();
+                for (Category category : Category.values()) {
+                    if (Files.isDirectory(category.dir)) {
+                        categories.put(category.dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                                StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY), category);
+                    }
+                }
+                while (true) {
+                    WatchKey key = watchService.take();
+                    key.pollEvents();
+                    Category category = categories.get(key);
+                    if (category != null) {
+                        tracks.put(category, list(category));
+                        Platform.runLater(() -> dropRemoved(category));
+                    }
+                    key.reset();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            } catch (InterruptedException ignore) {
+                // stopped
+            }
+        });
+    }
+
+    private void dropRemoved(Category category) {
+        Track track = preloaded.get(category);
+        if (track != null && !tracks.getOrDefault(category, List.of()).contains(track.file)) {
+            preloaded.remove(category);
+            track.dispose();
+            preloadAll();
+        }
+    }
+}
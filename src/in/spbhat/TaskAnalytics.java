@@ -0,0 +1,474 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Expected and actual durations of the completed tasks, summed up per day, per week and per priority.
+ * <p>
+ * The sums are kept in columns of primitive arrays, sorted by the day (or the first day of the week),
+ * so that the dashboards are drawn from the sums without reading the logs again.
+ * The daily sums are saved in the plans directory and updated incrementally like the {@link HistoryIndex}:
+ * only the logs added or modified since the last update are read, in parallel.
+ * The weekly and priority sums are added up from the daily sums when loading.
+ * Each completed task is added to the loaded sums as it is logged, see {@link #recordCompletion(LogRecord)}.
+ */
+public class TaskAnalytics {
+    private static final int VERSION = 1;
+    private static final String fileName = "analytics.bin";
+    /**
+     * Priorities 1 to 10, and 0 for the tasks logged by the earlier versions, which did not log it.
+     */
+    public static final int PRIORITY_LEVELS = 11;
+
+    private static TaskAnalytics loaded;
+
+    private final Path plansDir;
+    // log file name -> last modified time and size, at the time of reading
+    private final Map<String, long[]> fileStamps = new HashMap<>();
+    private final Columns days = new Columns();
+    private final Columns weeks = new Columns();
+    private final long[] actualSecondsByPriority = new long[PRIORITY_LEVELS];
+    private final long[] expectedSecondsByPriority = new long[PRIORITY_LEVELS];
+    private final long[] estimatedActualSecondsByPriority = new long[PRIORITY_LEVELS];
+    private final int[] completedByPriority = new int[PRIORITY_LEVELS];
+
+    /**
+     * Sums of a day, or of a week.
+     *
+     * @param estimated              number of completed tasks having an expected duration
+     * @param expectedSeconds        sum of the expected durations
+     * @param estimatedActualSeconds sum of the actual durations of the tasks having an expected duration
+     * @param actualSeconds          sum of the actual durations of all the tasks
+     */
+    public record Rollup(LocalDate start, int completed, int estimated, long expectedSeconds,
+                         long estimatedActualSeconds, long actualSeconds) {
+        /**
+         * @return how much more (positive) or less (negative) time the tasks took than expected, in percent
+         */
+        public double estimationErrorPercent() {
+            return expectedSeconds == 0 ? 0 : 100.0 * (estimatedActualSeconds - expectedSeconds) / expectedSeconds;
+        }
+    }
+
+    public record PriorityRollup(int priority, int completed, long expectedSeconds,
+                                 long estimatedActualSeconds, long actualSeconds) {
+    }
+
+    private TaskAnalytics(Path plansDir) {
+        this.plansDir = plansDir;
+    }
+
+    /**
+     * Loads the saved sums and brings them up to date with the logs in the plans directory (and its archives).
+     * The loaded sums are kept up to date with the tasks completed afterwards.
+     */
+    public static synchronized TaskAnalytics load(Path plansDir) throws IOException {
+        TaskAnalytics analytics = loaded;
+        if (analytics == null || !analytics.plansDir.equals(plansDir)) {
+            analytics = new TaskAnalytics(plansDir);
+            Path file = plansDir.resolve(fileName);
+            if (Files.exists(file)) {
+                try {
+                    analytics.read(file);
+                } catch (IOException e) {
+                    System.out.println("Rebuilding task analytics: " + e.getMessage());
+                    analytics = new TaskAnalytics(plansDir);
+                }
+            }
+        }
+        synchronized (analytics) {
+            if (analytics.update()) {
+                TaskAnalytics toWrite = analytics;
+                PlanWriter.writeAtomically(plansDir.resolve(fileName), channel -> {
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                            Channels.newOutputStream(channel)));
+                    toWrite.write(out);
+                    out.flush();
+                });
+            }
+            analytics.rollUp();
+        }
+        loaded = analytics;
+        return analytics;
+    }
+
+    /**
+     * Adds the completed task to the loaded sums of today, if they are loaded.
+     */
+    public static void recordCompletion(LogRecord logRecord) {
+        TaskAnalytics analytics;
+        synchronized (TaskAnalytics.class) {
+            analytics = loaded;
+        }
+        if (analytics != null) {
+            DayRollup rollup = new DayRollup(Planner.now.toLocalDate());
+            rollup.add(logRecord);
+            analytics.add(rollup);
+        }
+    }
+
+    /**
+     * @return true if any log was (re-)read
+     */
+    private boolean update() throws IOException {
+        Map<String, long[]> logs = new HashMap<>();
+        for (PlanArchive.ArchivedFile archived : PlanArchive.list(plansDir)) {
+            logs.put(archived.name(), new long[]{archived.lastModifiedMillis(), archived.size()});
+        }
+        try (Stream<Path> list = Files.list(plansDir)) {
+            for (Path file : (Iterable<Path>) list::iterator) {
+                logs.put(file.getFileName().toString(),
+                        new long[]{Files.getLastModifiedTime(file).toMillis(), Files.size(file)});
+            }
+        }
+        logs.keySet().removeIf(name -> !name.endsWith(".log") || PlanArchive.dateOf(Path.of(name)) == null);
+
+        List<String> changed = logs.keySet().stream()
+                .filter(name -> !Arrays.equals(logs.get(name), fileStamps.get(name)))
+                .toList();
+        List<String> removed = fileStamps.keySet().stream()
+                .filter(name -> !logs.containsKey(name))
+                .toList();
+        // logs are independent of each other, read them in parallel and add up the sums of the days here
+        List<DayRollup> rollups = changed.parallelStream()
+                .map(name -> DayRollup.read(plansDir.resolve(name)))
+                .toList();
+        for (String name : removed) {
+            replaceDay(PlanArchive.dateOf(Path.of(name)), null);
+            fileStamps.remove(name);
+        }
+        for (int r = 0; r < rollups.size(); r++) {
+            replaceDay(rollups.get(r).date, rollups.get(r));
+            fileStamps.put(changed.get(r), logs.get(changed.get(r)));
+        }
+        return !changed.isEmpty() || !removed.isEmpty();
+    }
+
+    private void replaceDay(LocalDate date, DayRollup rollup) {
+        int index = days.find((int) date.toEpochDay());
+        if (index >= 0) {
+            days.clear(index);
+        }
+        if (rollup != null) {
+            days.add(rollup);
+        }
+    }
+
+    // adds up the weekly and priority sums from the daily ones
+    private void rollUp() {
+        weeks.size = 0;
+        Arrays.fill(actualSecondsByPriority, 0);
+        Arrays.fill(expectedSecondsByPriority, 0);
+        Arrays.fill(estimatedActualSecondsByPriority, 0);
+        Arrays.fill(completedByPriority, 0);
+        for (int d = 0; d < days.size; d++) {
+            int week = weekOf(days.key[d]);
+            weeks.addRow(weeks.indexFor(week), days, d);
+            for (int p = 0; p < PRIORITY_LEVELS; p++) {
+                int i = d * PRIORITY_LEVELS + p;
+                actualSecondsByPriority[p] += days.actualByPriority[i];
+                expectedSecondsByPriority[p] += days.expectedByPriority[i];
+                estimatedActualSecondsByPriority[p] += days.estimatedActualByPriority[i];
+                completedByPriority[p] += days.completedByPriority[i];
+            }
+        }
+    }
+
+    private synchronized void add(DayRollup rollup) {
+        days.add(rollup);
+        weeks.add(rollup, weekOf((int) rollup.date.toEpochDay()));
+        for (int p = 0; p < PRIORITY_LEVELS; p++) {
+            actualSecondsByPriority[p] += rollup.actualByPriority[p];
+            expectedSecondsByPriority[p] += rollup.expectedByPriority[p];
+            estimatedActualSecondsByPriority[p] += rollup.estimatedActualByPriority[p];
+            completedByPriority[p] += rollup.completedByPriority[p];
+        }
+    }
+
+    private static int weekOf(int epochDay) {
+        return (int) LocalDate.ofEpochDay(epochDay).with(DayOfWeek.MONDAY).toEpochDay();
+    }
+
+    /**
+     * @return the sums of the days in the range (inclusive), oldest first, skipping the days without tasks
+     */
+    public synchronized List<Rollup> daily(LocalDate from, LocalDate to) {
+        return days.rollups(from, to);
+    }
+
+    /**
+     * @return the sums of the weeks (starting on Monday) in the range (inclusive), oldest first
+     */
+    public synchronized List<Rollup> weekly(LocalDate from, LocalDate to) {
+        return weeks.rollups(from.with(DayOfWeek.MONDAY), to);
+    }
+
+    /**
+     * @return the sums of the priority levels with at least one task
+     */
+    public synchronized List<PriorityRollup> byPriority() {
+        List<PriorityRollup> rollups = new ArrayList<>();
+        for (int p = 0; p < PRIORITY_LEVELS; p++) {
+            if (completedByPriority[p] > 0) {
+                rollups.add(new PriorityRollup(p, completedByPriority[p], expectedSecondsByPriority[p],
+                        estimatedActualSecondsByPriority[p], actualSecondsByPriority[p]));
+            }
+        }
+        return rollups;
+    }
+
+    public synchronized int numDays() {
+        int numDays = 0;
+        for (int d = 0; d < days.size; d++) {
+            if (days.completed[d] > 0) numDays++;
+        }
+        return numDays;
+    }
+
+    private void read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != VERSION || in.readInt() != PRIORITY_LEVELS) {
+                throw new IOException("Unsupported task analytics version");
+            }
+            int numFiles = in.readInt();
+            for (int f = 0; f < numFiles; f++) {
+                fileStamps.put(in.readUTF(), new long[]{in.readLong(), in.readLong()});
+            }
+            days.read(in);
+        } catch (EOFException | NegativeArraySizeException e) {
+            throw new IOException("Corrupt task analytics", e);
+        }
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+        out.writeInt(VERSION);
+        out.writeInt(PRIORITY_LEVELS);
+        out.writeInt(fileStamps.size());
+        for (var stamp : fileStamps.entrySet()) {
+            out.writeUTF(stamp.getKey());
+            out.writeLong(stamp.getValue()[0]);
+            out.writeLong(stamp.getValue()[1]);
+        }
+        days.write(out);
+    }
+
+    /**
+     * Sums of the tasks completed on a day, from its log.
+     */
+    private static class DayRollup {
+        final LocalDate date;
+        int completed, estimated;
+        long expectedSeconds, estimatedActualSeconds, actualSeconds;
+        final long[] actualByPriority = new long[PRIORITY_LEVELS];
+        final long[] expectedByPriority = new long[PRIORITY_LEVELS];
+        final long[] estimatedActualByPriority = new long[PRIORITY_LEVELS];
+        final int[] completedByPriority = new int[PRIORITY_LEVELS];
+
+        DayRollup(LocalDate date) {
+            this.date = date;
+        }
+
+        static DayRollup read(Path logFile) {
+            DayRollup rollup = new DayRollup(PlanArchive.dateOf(logFile));
+            try {
+                LogRecord.readAll(logFile).forEach(rollup::add);
+            } catch (IOException e) {
+                System.out.println("Unable to read: " + logFile + " (" + e + ")");
+            }
+            return rollup;
+        }
+
+        void add(LogRecord logRecord) {
+            int p = Math.clamp(logRecord.priority(), 0, PRIORITY_LEVELS - 1);
+            long actual = logRecord.actualDuration().toSeconds();
+            long expected = logRecord.expectedDuration().toSeconds();
+            completed++;
+            completedByPriority[p]++;
+            actualSeconds += actual;
+            actualByPriority[p] += actual;
+            if (expected > 0) {
+                estimated++;
+                expectedSeconds += expected;
+                estimatedActualSeconds += actual;
+                expectedByPriority[p] += expected;
+                estimatedActualByPriority[p] += actual;
+            }
+        }
+    }
+
+    /**
+     * Sums in columns, one row per day or week, sorted by the epoch day of the day or of the first day of the week.
+     * The sums per priority are in rows of {@link #PRIORITY_LEVELS} values.
+     */
+    private static class Columns {
+        int size;
+        int[] key = new int[64];
+        int[] completed = new int[64];
+        int[] estimated = new int[64];
+        long[] expectedSeconds = new long[64];
+        long[] estimatedActualSeconds = new long[64];
+        long[] actualSeconds = new long[64];
+        long[] actualByPriority = new long[64 * PRIORITY_LEVELS];
+        long[] expectedByPriority = new long[64 * PRIORITY_LEVELS];
+        long[] estimatedActualByPriority = new long[64 * PRIORITY_LEVELS];
+        int[] completedByPriority = new int[64 * PRIORITY_LEVELS];
+
+        int find(int rowKey) {
+            return Arrays.binarySearch(key, 0, size, rowKey);
+        }
+
+        /**
+         * @return the row of the key, inserted with zero sums if not present
+         */
+        int indexFor(int rowKey) {
+            // rows are mostly added at the end, in the order of the days
+            if (size > 0 && key[size - 1] == rowKey) return size - 1;
+            int index = find(rowKey);
+            if (index >= 0) return index;
+            index = -index - 1;
+            if (size == key.length) grow();
+            shift(index);
+            size++;
+            key[index] = rowKey;
+            return index;
+        }
+
+        void add(DayRollup rollup) {
+            add(rollup, (int) rollup.date.toEpochDay());
+        }
+
+        void add(DayRollup rollup, int rowKey) {
+            int row = indexFor(rowKey);
+            completed[row] += rollup.completed;
+            estimated[row] += rollup.estimated;
+            expectedSeconds[row] += rollup.expectedSeconds;
+            estimatedActualSeconds[row] += rollup.estimatedActualSeconds;
+            actualSeconds[row] += rollup.actualSeconds;
+            for (int p = 0; p < PRIORITY_LEVELS; p++) {
+                int i = row * PRIORITY_LEVELS + p;
+                actualByPriority[i] += rollup.actualByPriority[p];
+                expectedByPriority[i] += rollup.expectedByPriority[p];
+                estimatedActualByPriority[i] += rollup.estimatedActualByPriority[p];
+                completedByPriority[i] += rollup.completedByPriority[p];
+            }
+        }
+
+        void addRow(int row, Columns from, int fromRow) {
+            completed[row] += from.completed[fromRow];
+            estimated[row] += from.estimated[fromRow];
+            expectedSeconds[row] += from.expectedSeconds[fromRow];
+            estimatedActualSeconds[row] += from.estimatedActualSeconds[fromRow];
+            actualSeconds[row] += from.actualSeconds[fromRow];
+            for (int p = 0; p < PRIORITY_LEVELS; p++) {
+                int i = row * PRIORITY_LEVELS + p, j = fromRow * PRIORITY_LEVELS + p;
+                actualByPriority[i] += from.actualByPriority[j];
+                expectedByPriority[i] += from.expectedByPriority[j];
+                estimatedActualByPriority[i] += from.estimatedActualByPriority[j];
+                completedByPriority[i] += from.completedByPriority[j];
+            }
+        }
+
+        void clear(int row) {
+            completed[row] = estimated[row] = 0;
+            expectedSeconds[row] = estimatedActualSeconds[row] = actualSeconds[row] = 0;
+            int from = row * PRIORITY_LEVELS, to = from + PRIORITY_LEVELS;
+            Arrays.fill(actualByPriority, from, to, 0);
+            Arrays.fill(expectedByPriority, from, to, 0);
+            Arrays.fill(estimatedActualByPriority, from, to, 0);
+            Arrays.fill(completedByPriority, from, to, 0);
+        }
+
+        List<Rollup> rollups(LocalDate from, LocalDate to) {
+            int start = find((int) from.toEpochDay());
+            start = start < 0 ? -start - 1 : start;
+            List<Rollup> rollups = new ArrayList<>();
+            for (int row = start; row < size && key[row] <= to.toEpochDay(); row++) {
+                if (completed[row] > 0) {
+                    rollups.add(new Rollup(LocalDate.ofEpochDay(key[row]), completed[row], estimated[row],
+                            expectedSeconds[row], estimatedActualSeconds[row], actualSeconds[row]));
+                }
+            }
+            return rollups;
+        }
+
+        private void grow() {
+            int capacity = key.length * 2;
+            key = Arrays.copyOf(key, capacity);
+            completed = Arrays.copyOf(completed, capacity);
+            estimated = Arrays.copyOf(estimated, capacity);
+            expectedSeconds = Arrays.copyOf(expectedSeconds, capacity);
+            estimatedActualSeconds = Arrays.copyOf(estimatedActualSeconds, capacity);
+            actualSeconds = Arrays.copyOf(actualSeconds, capacity);
+            actualByPriority = Arrays.copyOf(actualByPriority, capacity * PRIORITY_LEVELS);
+            expectedByPriority = Arrays.copyOf(expectedByPriority, capacity * PRIORITY_LEVELS);
+            estimatedActualByPriority = Arrays.copyOf(estimatedActualByPriority, capacity * PRIORITY_LEVELS);
+            completedByPriority = Arrays.copyOf(completedByPriority, capacity * PRIORITY_LEVELS);
+        }
+
+        // makes room for a row at the index, the new row has zero sums (rows past the size may hold old sums)
+        private void shift(int index) {
+            int n = size - index;
+            System.arraycopy(key, index, key, index + 1, n);
+            System.arraycopy(completed, index, completed, index + 1, n);
+            System.arraycopy(estimated, index, estimated, index + 1, n);
+            System.arraycopy(expectedSeconds, index, expectedSeconds, index + 1, n);
+            System.arraycopy(estimatedActualSeconds, index, estimatedActualSeconds, index + 1, n);
+            System.arraycopy(actualSeconds, index, actualSeconds, index + 1, n);
+            int p = index * PRIORITY_LEVELS, np = n * PRIORITY_LEVELS;
+            System.arraycopy(actualByPriority, p, actualByPriority, p + PRIORITY_LEVELS, np);
+            System.arraycopy(expectedByPriority, p, expectedByPriority, p + PRIORITY_LEVELS, np);
+            System.arraycopy(estimatedActualByPriority, p, estimatedActualByPriority, p + PRIORITY_LEVELS, np);
+            System.arraycopy(completedByPriority, p, completedByPriority, p + PRIORITY_LEVELS, np);
+            clear(index);
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(size);
+            for (int row = 0; row < size; row++) {
+                out.writeInt(key[row]);
+                out.writeInt(completed[row]);
+                out.writeInt(estimated[row]);
+                out.writeLong(expectedSeconds[row]);
+                out.writeLong(estimatedActualSeconds[row]);
+                out.writeLong(actualSeconds[row]);
+                for (int i = row * PRIORITY_LEVELS; i < (row + 1) * PRIORITY_LEVELS; i++) {
+                    out.writeLong(actualByPriority[i]);
+                    out.writeLong(expectedByPriority[i]);
+                    out.writeLong(estimatedActualByPriority[i]);
+                    out.writeInt(completedByPriority[i]);
+                }
+            }
+        }
+
+        void read(DataInputStream in) throws IOException {
+            int numRows = in.readInt();
+            for (int r = 0; r < numRows; r++) {
+                int row = indexFor(in.readInt());
+                completed[row] = in.readInt();
+                estimated[row] = in.readInt();
+                expectedSeconds[row] = in.readLong();
+                estimatedActualSeconds[row] = in.readLong();
+                actualSeconds[row] = in.readLong();
+                for (int i = row * PRIORITY_LEVELS; i < (row + 1) * PRIORITY_LEVELS; i++) {
+                    actualByPriority[i] = in.readLong();
+                    expectedByPriority[i] = in.readLong();
+                    estimatedActualByPriority[i] = in.readLong();
+                    completedByPriority[i] = in.readInt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import in.spbhat.EditableTask.EditableTaskStatus;
+import in.spbhat.PlanChange.*;
+import in.spbhat.PlanData.TaskData;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * The tasks of the priorities, independent of the UI. The nodes showing the tasks, the journal,
+ * the info widget and the timers all read the tasks from here, and change them through here.
+ * <p>
+ * Can be used from any thread. Reading takes no lock: the tasks are kept in an immutable list
+ * which is replaced on every change. The changes are published to the subscribers as batches of
+ * {@link PlanChange}s, one batch per call (e.g. adding the worked time to all the tasks in process),
+ * in the order they were made. A change which does not change anything is not published.
+ */
+public class TaskModel {
+    private static final List<Consumer<List<PlanChange>>> subscribers = new CopyOnWriteArrayList<>();
+    private static final Queue<List<PlanChange>> undelivered = new ArrayDeque<>();
+    private static volatile List<TaskData> tasks = List.of();
+    private static long nextId = 1;
+    private static boolean delivering;
+
+    /**
+     * @param subscriber called with each batch of changes, on the thread making them, while the model is locked
+     *                   (so it should only queue the changes, or apply them quickly). The changes it makes
+     *                   to the model are delivered after the batch has reached all the subscribers.
+     */
+    public static void subscribe(Consumer<List<PlanChange>> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * @param subscriber no longer called, from the next batch
+     */
+    public static void unsubscribe(Consumer<List<PlanChange>> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * @return all the tasks, in the order they were added
+     */
+    public static List<TaskData> tasks() {
+        return tasks;
+    }
+
+    public static List<TaskData> tasks(EditableTaskStatus status) {
+        return tasks.stream().filter(task -> task.status() == status).toList();
+    }
+
+    public static Optional<TaskData> task(long id) {
+        for (TaskData task : tasks) {
+            if (task.id() == id) return Optional.of(task);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Replaces all the tasks, e.g. with the tasks of a loaded plan.
+     */
+    public static synchronized void setAll(List<TaskData> newTasks) {
+        List<PlanChange> changes = new ArrayList<>();
+        for (TaskData task : tasks) {
+            changes.add(new TaskRemoved(task.id()));
+        }
+        for (TaskData task : newTasks) {
+            changes.add(new TaskAdded(task));
+            nextId = Math.max(nextId, task.id() + 1);
+        }
+        commit(List.copyOf(newTasks), changes);
+    }
+
+    /**
+     * Adds a new task with the next id.
+     */
+    public static synchronized TaskData add(String description, Duration expected, Duration actual,
+                                            int priority, String notes) {
+        TaskData task = new TaskData(nextId++, EditableTaskStatus.INCOMPLETE, description, expected, actual,
+                priority, notes);
+        List<TaskData> newTasks = new ArrayList<>(tasks);
+        newTasks.add(task);
+        commit(newTasks, List.of(new TaskAdded(task)));
+        return task;
+    }
+
+    public static synchronized void remove(long id) {
+        List<TaskData> newTasks = new ArrayList<>(tasks);
+        if (newTasks.removeIf(task -> task.id() == id)) {
+            commit(newTasks, List.of(new TaskRemoved(id)));
+        }
+    }
+
+    public static void setStatus(long id, EditableTaskStatus status) {
+        update(id, t -> new TaskData(id, status, t.description(), t.expectedDuration(), t.actualDuration(),
+                t.priority(), t.notes()));
+    }
+
+    public static void setDescription(long id, String description) {
+        update(id, t -> new TaskData(id, t.status(), description, t.expectedDuration(), t.actualDuration(),
+                t.priority(), t.notes()));
+    }
+
+    public static void setDurations(long id, Duration expected, Duration actual) {
+        update(id, t -> new TaskData(id, t.status(), t.description(), expected, actual, t.priority(), t.notes()));
+    }
+
+    public static void setPriority(long id, int priority) {
+        update(id, t -> new TaskData(id, t.status(), t.description(), t.expectedDuration(), t.actualDuration(),
+                priority, t.notes()));
+    }
+
+    public static void setNotes(long id, String notes) {
+        update(id, t -> new TaskData(id, t.status(), t.description(), t.expectedDuration(), t.actualDuration(),
+                t.priority(), notes));
+    }
+
+    public static void update(long id, UnaryOperator<TaskData> change) {
+        updateAll(task -> task.id() == id, change);
+    }
+
+    /**
+     * Changes the matching tasks as one batch.
+     */
+    public static synchronized void updateAll(Predicate<TaskData> filter, UnaryOperator<TaskData> change) {
+        List<TaskData> newTasks = new ArrayList<>(tasks.size());
+        List<PlanChange> changes = new ArrayList<>();
+        for (TaskData task : tasks) {
+            if (filter.test(task)) {
+                TaskData changed = change.apply(task);
+                diff(task, changed, changes);
+                newTasks.add(changed);
+            } else {
+                newTasks.add(task);
+            }
+        }
+        if (!changes.isEmpty()) {
+            commit(newTasks, changes);
+        }
+    }
+
+    private static void diff(TaskData before, TaskData after, List<PlanChange> changes) {
+        long id = before.id();
+        if (before.status() != after.status()) {
+            changes.add(new TaskStatusChanged(id, after.status()));
+        }
+        if (!before.description().equals(after.description())) {
+            changes.add(new TaskTextChanged(id, after.description()));
+        }
+        if (!before.expectedDuration().equals(after.expectedDuration())
+            || !before.actualDuration().equals(after.actualDuration())) {
+            changes.add(new TaskDurationsChanged(id, after.expectedDuration(), after.actualDuration()));
+        }
+        if (before.priority() != after.priority()) {
+            changes.add(new TaskPriorityChanged(id, after.priority()));
+        }
+        if (!before.notes().equals(after.notes())) {
+            changes.add(new TaskNotesChanged(id, after.notes()));
+        }
+    }
+
+    // called holding the lock, so the subscribers get the batches in order
+    private static void commit(List<TaskData> newTasks, List<PlanChange> changes) {
+        tasks = List.copyOf(newTasks);
+        undelivered.add(List.copyOf(changes));
+        if (delivering) { // changed by a subscriber
+            return;
+        }
+        delivering = true;
+        try {
+            List<PlanChange> batch;
+            while ((batch = undelivered.poll()) != null) {
+                for (Consumer<List<PlanChange>> subscriber : subscribers) {
+                    try {
+                        subscriber.accept(batch);
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        } finally {
+            delivering = false;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import in.spbhat.EditableTask.EditableTaskStatus;
+import in.spbhat.PlanData.TaskData;
+import javafx.collections.ObservableListBase;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * The tasks as shown in the priorities list, kept in the order of the chosen {@link SortMode}.
+ * <p>
+ * A changed task is moved to its new position by a single permutation of the rows between its old and new
+ * positions, so the list does not rebuild the other rows. Tasks which are equal in the sort mode are in the
+ * order they were created.
+ * <p>
+ * To be used on the JavaFX Application Thread.
+ */
+public class TaskOrder extends ObservableListBase<TaskData> {
+    public enum SortMode {
+        PRIORITY("Priority", Comparator.comparingInt(TaskData::priority)
+                .thenComparing(TaskData::expectedDuration)),
+        STATUS("Status", Comparator.<TaskData>comparingInt(task -> statusRank(task.status()))
+                .thenComparingInt(TaskData::priority)),
+        TIME_LEFT("Time left", Comparator.<TaskData, Duration>comparing(task ->
+                        task.expectedDuration().minus(task.actualDuration()))
+                .thenComparingInt(TaskData::priority)),
+        CREATED("Created", (_, _) -> 0);
+
+        private final String label;
+        private final Comparator<TaskData> order;
+
+        SortMode(String label, Comparator<TaskData> order) {
+            this.label = label;
+            this.order = order.thenComparingLong(TaskData::id); // ids are given in the order of creation
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+
+        // in process first, completed last
+        private static int statusRank(EditableTaskStatus status) {
+            return switch (status) {
+                case IN_PROCESS -> 0;
+                case INCOMPLETE -> 1;
+                case COMPLETE -> 2;
+            };
+        }
+    }
+
+    private final List<TaskData> tasks = new ArrayList<>();
+    private final Map<Long, TaskData> tasksById = new HashMap<>();
+    private SortMode sortMode = SortMode.PRIORITY;
+
+    @Override
+    public TaskData get(int index) {
+        return tasks.get(index);
+    }
+
+    @Override
+    public int size() {
+        return tasks.size();
+    }
+
+    public SortMode getSortMode() {
+        return sortMode;
+    }
+
+    /**
+     * Sorts the tasks in the mode, as one permutation.
+     */
+    public void setSortMode(SortMode sortMode) {
+        if (sortMode == this.sortMode) {
+            return;
+        }
+        this.sortMode = sortMode;
+        if (tasks.isEmpty()) {
+            return;
+        }
+        List<TaskData> sorted = new ArrayList<>(tasks);
+        sorted.sort(sortMode.order);
+        Map<Long, Integer> newIndex = new HashMap<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            newIndex.put(sorted.get(i).id(), i);
+        }
+        int[] permutation = new int[tasks.size()];
+        for (int i = 0; i < tasks.size(); i++) {
+            permutation[i] = newIndex.get(tasks.get(i).id());
+        }
+        tasks.clear();
+        tasks.addAll(sorted);
+        beginChange();
+        nextPermutation(0, permutation.length, permutation);
+        endChange();
+    }
+
+    /**
+     * Replaces all the tasks, e.g. when a plan is loaded.
+     */
+    public void setAll(List<TaskData> newTasks) {
+        List<TaskData> removed = List.copyOf(tasks);
+        tasks.clear();
+        tasksById.clear();
+        tasks.addAll(newTasks);
+        tasks.sort(sortMode.order);
+        newTasks.forEach(task -> tasksById.put(task.id(), task));
+        beginChange();
+        nextReplace(0, tasks.size(), removed);
+        endChange();
+    }
+
+    /**
+     * Adds the task, or shows its new values and moves it if it is no longer in order.
+     */
+    public void put(TaskData task) {
+        TaskData shown = tasksById.put(task.id(), task);
+        if (shown == null) {
+            int index = insertionPoint(task);
+            tasks.add(index, task);
+            beginChange();
+            nextAdd(index, index + 1);
+            endChange();
+            return;
+        }
+        int from = indexOf(shown);
+        tasks.set(from, task);
+        beginChange();
+        nextSet(from, shown);
+        endChange();
+        if (inOrderAt(from)) {
+            return;
+        }
+        tasks.remove(from);
+        int to = insertionPoint(task);
+        tasks.add(to, task);
+        move(from, to);
+    }
+
+    public void remove(long id) {
+        TaskData shown = tasksById.remove(id);
+        if (shown == null) {
+            return;
+        }
+        int index = indexOf(shown);
+        tasks.remove(index);
+        beginChange();
+        nextRemove(index, shown);
+        endChange();
+    }
+
+    /**
+     * @return the row of the task, or -1 if it is not shown
+     */
+    public int indexOfTask(long id) {
+        TaskData shown = tasksById.get(id);
+        return shown == null ? -1 : indexOf(shown);
+    }
+
+    private int indexOf(TaskData shown) {
+        int index = Collections.binarySearch(tasks, shown, sortMode.order);
+        if (index < 0) {
+            throw new IllegalStateException("Task not in order: " + shown.id());
+        }
+        return index;
+    }
+
+    private int insertionPoint(TaskData task) {
+        int index = Collections.binarySearch(tasks, task, sortMode.order);
+        return index < 0 ? -index - 1 : index;
+    }
+
+    private boolean inOrderAt(int index) {
+        TaskData task = tasks.get(index);
+        return (index == 0 || sortMode.order.compare(tasks.get(index - 1), task) < 0)
+               && (index == tasks.size() - 1 || sortMode.order.compare(task, tasks.get(index + 1)) < 0);
+    }
+
+    // the rows between the two positions shift by one towards the old position
+    private void move(int from, int to) {
+        int low = Math.min(from, to);
+        int high = Math.max(from, to);
+        int[] permutation = new int[high - low + 1];
+        for (int i = low; i <= high; i++) {
+            permutation[i - low] = i == from ? to : from < to ? i - 1 : i + 1;
+        }
+        beginChange();
+        nextPermutation(low, high + 1, permutation);
+        endChange();
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import javafx.application.Platform;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the periodic and delayed jobs of the application from a single thread.
+ * <p>
+ * The jobs are kept in a hierarchical timing wheel: {@value #LEVELS} levels of {@value #SLOTS} slots,
+ * the first level having slots of {@link #tickNanos} and each next level slots of {@value #SLOTS} times
+ * the previous one. Adding and removing a job takes constant time, and the jobs far in the future are
+ * moved to the lower levels only when their slot comes up.
+ * <p>
+ * The thread sleeps until the next slot having a job, and not at all while there is no job, so an idle
+ * application is not woken up. To wake up less often, the due time of a job is rounded up to a multiple of
+ * its allowed delay (the window), on a clock shared by all the jobs: jobs with the same window that are due
+ * close to each other are then run in the same wakeup.
+ * <p>
+ * Jobs should be short: they are run one after the other on the scheduler thread,
+ * or on the JavaFX Application Thread if they touch the UI, see {@link #fxThread}.
+ */
+public class TickScheduler {
+    private static final int LEVELS = 5;
+    private static final int SLOTS = 64;
+    private static final int SLOT_BITS = 6;
+    private static final long tickNanos = Duration.ofMillis(10).toNanos();
+    // less than one round of the last level, about four months
+    private static final long maxDelayTicks = (long) (SLOTS - 2) << (SLOT_BITS * (LEVELS - 1));
+
+    /**
+     * Runs the jobs on the JavaFX Application Thread.
+     */
+    public static final Executor fxThread = Platform::runLater;
+    /**
+     * Runs the jobs on the scheduler thread.
+     */
+    public static final Executor schedulerThread = Runnable::run;
+
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static final Condition changed = lock.newCondition();
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final List<Job>[][] wheel = new List[LEVELS][SLOTS];
+    private static final long[] occupiedSlots = new long[LEVELS]; // bit per slot
+    private static final Map<String, Timing> timings = new LinkedHashMap<>(); // by job name
+    private static final long originNanos = System.nanoTime();
+    private static long currentTick = 0; // time of the wheel, in ticks since the origin
+    private static int numScheduled = 0;
+    private static long wakeups = 0;
+    private static Thread thread;
+
+    static {
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheel[level][slot] = new ArrayList<>();
+            }
+        }
+    }
+
+    /**
+     * Timing of a job so far, all in nanoseconds.
+     *
+     * @param runs       number of times the job was run
+     * @param maxRun     longest run of the job
+     * @param totalDelay sum of the delays of the runs, after the time the job was due
+     */
+    public record JobMetrics(String name, long runs, long totalRun, long maxRun, long totalDelay, long maxDelay) {
+        @Override
+        public String toString() {
+            return "%s: %d runs, %.2f ms avg, %.2f ms max, delayed %.1f ms avg, %.1f ms max".formatted(name, runs,
+                    runs == 0 ? 0 : totalRun / 1e6 / runs, maxRun / 1e6,
+                    runs == 0 ? 0 : totalDelay / 1e6 / runs, maxDelay / 1e6);
+        }
+    }
+
+    private static class Timing {
+        long runs, totalRun, maxRun, totalDelay, maxDelay;
+    }
+
+    public static class Job {
+        private final String name;
+        private final long periodNanos; // 0 for a job run once
+        private final long windowTicks;
+        private final Executor executor;
+        private final Runnable task;
+        private long dueNanos; // as asked, before rounding up to the window
+        private long deadlineTick;
+        private int level = -1, slot; // position in the wheel, level -1 when not in the wheel
+        private final Timing timing;
+        private boolean cancelled;
+
+        private Job(String name, long periodNanos, Duration window, Executor executor, Runnable task) {
+            this.name = name;
+            this.periodNanos = periodNanos;
+            this.windowTicks = Math.max(1, Math.ceilDiv(window.toNanos(), tickNanos));
+            this.executor = executor;
+            this.task = task;
+            lock.lock();
+            try {
+                timing = timings.computeIfAbsent(name, _ -> new Timing());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Runs the job after the delay, instead of at the time it was due.
+         * Also schedules a cancelled job again.
+         */
+        public void reschedule(Duration delay) {
+            if (delay.toNanos() / tickNanos + windowTicks > maxDelayTicks) {
+                throw new IllegalArgumentException("Delay too long: " + delay);
+            }
+            lock.lock();
+            try {
+                remove(this);
+                cancelled = false;
+                dueNanos = System.nanoTime() + delay.toNanos();
+                add(this);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Stops running the job, does not stop a run which has already started.
+         */
+        public void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                remove(this);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean isScheduled() {
+            lock.lock();
+            try {
+                return level >= 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void run(long dueAtNanos) {
+            lock.lock();
+            try {
+                if (cancelled) return; // after it was handed to the executor
+            } finally {
+                lock.unlock();
+            }
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            long end = System.nanoTime();
+            lock.lock();
+            try {
+                timing.runs++;
+                timing.totalRun += end - start;
+                timing.maxRun = Math.max(timing.maxRun, end - start);
+                timing.totalDelay += Math.max(0, start - dueAtNanos);
+                timing.maxDelay = Math.max(timing.maxDelay, start - dueAtNanos);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs the task every period, first after one period.
+     *
+     * @param window   the job may be run this late, to run it together with the other jobs
+     * @param executor {@link #fxThread} or {@link #schedulerThread}
+     */
+    public static Job repeat(String name, Duration period, Duration window, Executor executor, Runnable task) {
+        Job job = new Job(name, period.toNanos(), window, executor, task);
+        job.reschedule(period);
+        return job;
+    }
+
+    /**
+     * Runs the task once, after the delay.
+     *
+     * @see #repeat(String, Duration, Duration, Executor, Runnable)
+     */
+    public static Job once(String name, Duration delay, Duration window, Executor executor, Runnable task) {
+        Job job = new Job(name, 0, window, executor, task);
+        job.reschedule(delay);
+        return job;
+    }
+
+    public static List<JobMetrics> metrics() {
+        lock.lock();
+        try {
+            return timings.entrySet().stream().map(entry -> {
+                Timing timing = entry.getValue();
+                return new JobMetrics(entry.getKey(), timing.runs, timing.totalRun, timing.maxRun,
+                        timing.totalDelay, timing.maxDelay);
+            }).toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of times the scheduler thread woke up to run jobs
+     */
+    public static long wakeups() {
+        lock.lock();
+        try {
+            return wakeups;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // called holding the lock
+    private static void add(Job job) {
+        long nowTick = tickOf(System.nanoTime());
+        if (numScheduled == 0 && currentTick < nowTick) {
+            currentTick = nowTick; // nothing to catch up with
+        }
+        long dueTick = Math.ceilDiv(job.dueNanos - originNanos, tickNanos);
+        job.deadlineTick = Math.ceilDiv(dueTick, job.windowTicks) * job.windowTicks;
+        place(job);
+        numScheduled++;
+        if (thread == null) {
+            thread = Thread.ofVirtual().name("Tick Scheduler").start(TickScheduler::runJobs);
+        }
+        changed.signal();
+    }
+
+    /**
+     * Puts the job in the lowest level at which its tick and the current tick are in the same slot
+     * of the next level, so the slot of the job is never behind the current one
+     * (the last level goes round, see {@link #maxDelayTicks}).
+     */
+    private static void place(Job job) {
+        long tick = Math.max(job.deadlineTick, currentTick);
+        int level = 0;
+        while (level < LEVELS - 1
+               && (tick >>> (SLOT_BITS * (level + 1))) != (currentTick >>> (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+        wheel[level][slot].add(job);
+        occupiedSlots[level] |= 1L << slot;
+        job.level = level;
+        job.slot = slot;
+    }
+
+    private static void remove(Job job) {
+        if (job.level < 0) {
+            return;
+        }
+        List<Job> slotJobs = wheel[job.level][job.slot];
+        slotJobs.remove(job);
+        if (slotJobs.isEmpty()) {
+            occupiedSlots[job.level] &= ~(1L << job.slot);
+        }
+        job.level = -1;
+        numScheduled--;
+    }
+
+    private static long tickOf(long nanos) {
+        return (nanos - originNanos) / tickNanos;
+    }
+
+    /**
+     * @return the next tick at which a slot has to be run (level 0) or moved down (higher levels),
+     * or -1 if there is no job
+     */
+    private static long nextTick() {
+        long next = -1;
+        for (int level = 0; level < LEVELS; level++) {
+            long mask = occupiedSlots[level];
+            if (mask == 0) continue;
+            int shift = SLOT_BITS * level;
+            int current = (int) ((currentTick >>> shift) & (SLOTS - 1));
+            // first occupied slot at or after the current one, going round
+            long rotated = Long.rotateRight(mask, current);
+            int ahead = Long.numberOfTrailingZeros(rotated);
+            long slotStart = ((currentTick >>> shift) + ahead) << shift;
+            long tick = Math.max(slotStart, currentTick);
+            if (next < 0 || tick < next) next = tick;
+        }
+        return next;
+    }
+
+    /**
+     * Moves the wheel to the tick, moving down the jobs of the higher level slots which start at it,
+     * and returns the jobs due at the tick.
+     */
+    private static List<Job> advanceTo(long tick) {
+        currentTick = tick;
+        for (int level = LEVELS - 1; level > 0; level--) {
+            int shift = SLOT_BITS * level;
+            int slot = (int) ((tick >>> shift) & (SLOTS - 1));
+            if ((occupiedSlots[level] & (1L << slot)) == 0) continue;
+            List<Job> cascaded = new ArrayList<>(wheel[level][slot]);
+            for (Job job : cascaded) {
+                remove(job);
+                place(job);
+                numScheduled++;
+            }
+        }
+        int slot = (int) (tick & (SLOTS - 1));
+        List<Job> due = new ArrayList<>();
+        for (Job job : new ArrayList<>(wheel[0][slot])) {
+            if (job.deadlineTick <= tick) {
+                remove(job);
+                due.add(job);
+            }
+        }
+        return due;
+    }
+
+    private static void runJobs() {
+        while (true) {
+            List<Job> due = new ArrayList<>();
+            List<Long> dueAtNanos = new ArrayList<>();
+            lock.lock();
+            try {
+                long next;
+                while ((next = nextTick()) < 0 || next > tickOf(System.nanoTime())) {
+                    if (next < 0) {
+                        changed.await();
+                    } else {
+                        long waitNanos = originNanos + next * tickNanos - System.nanoTime();
+                        changed.awaitNanos(Math.max(waitNanos, 1));
+                    }
+                }
+                wakeups++;
+                long nowTick = tickOf(System.nanoTime());
+                while ((next = nextTick()) >= 0 && next <= nowTick) {
+                    due.addAll(advanceTo(next));
+                }
+                currentTick = Math.max(currentTick, nowTick);
+                for (Job job : due) {
+                    dueAtNanos.add(originNanos + job.deadlineTick * tickNanos);
+                    if (job.periodNanos > 0) { // next run, at a fixed rate skipping the missed ones
+                        long now = System.nanoTime();
+                        job.dueNanos += job.periodNanos;
+                        if (job.dueNanos < now) {
+                            job.dueNanos += Math.ceilDiv(now - job.dueNanos, job.periodNanos) * job.periodNanos;
+                        }
+                        add(job);
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            for (int j = 0; j < due.size(); j++) {
+                Job job = due.get(j);
+                long dueAt = dueAtNanos.get(j);
+                job.executor.execute(() -> job.run(dueAt));
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import in.spbhat.IntervalLedger.WorkInterval;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.time.*;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shows the time spent per task between two dates, and the tasks worked on at a time, from the {@link IntervalLedger}.
+ */
+public class TimeSpentViewer extends Stage {
+    private final DatePicker fromDate = new DatePicker(LocalDate.now().minusDays(6));
+    private final DatePicker toDate = new DatePicker(LocalDate.now());
+    private final DatePicker atDate = new DatePicker(LocalDate.now());
+    private final TextField atTime = new TextField(LocalTime.now().withSecond(0).withNano(0).toString());
+    private final TextArea results = new TextArea();
+
+    public TimeSpentViewer() {
+        Button spentBtn = new Button("Time Spent");
+        spentBtn.setOnAction(_ -> showTimeSpent());
+        HBox spentBox = new HBox(new Label("From:"), fromDate, new Label("To:"), toDate, spentBtn);
+        spentBox.setSpacing(5);
+        spentBox.setAlignment(Pos.CENTER_LEFT);
+
+        atTime.setPrefColumnCount(5);
+        atTime.setPromptText("HH:mm");
+        Button atBtn = new Button("Working On");
+        atBtn.setOnAction(_ -> showWorkingOn());
+        atTime.setOnAction(_ -> showWorkingOn());
+        HBox atBox = new HBox(new Label("At:"), atDate, atTime, atBtn);
+        atBox.setSpacing(5);
+        atBox.setAlignment(Pos.CENTER_LEFT);
+
+        results.setEditable(false);
+        results.setFont(Section.notesFont);
+        VBox.setVgrow(results, Priority.ALWAYS);
+
+        VBox root = new VBox(spentBox, atBox, results);
+        root.setSpacing(5);
+        root.setPadding(new Insets(10));
+        setScene(new Scene(root, 650, 450));
+        setTitle("Time Spent");
+        showTimeSpent();
+    }
+
+    private void showTimeSpent() {
+        LocalDate from = fromDate.getValue();
+        LocalDate to = toDate.getValue();
+        if (from == null || to == null || to.isBefore(from)) {
+            results.setText("Choose the dates, the first one not after the second.");
+            return;
+        }
+        query(() -> timeSpent(from, to));
+    }
+
+    private void showWorkingOn() {
+        LocalDate date = atDate.getValue();
+        try {
+            LocalTime time = LocalTime.parse(atTime.getText().strip());
+            query(() -> workingOn(date.atTime(time)));
+        } catch (DateTimeParseException e) {
+            results.setText("Not a time (HH:mm): " + atTime.getText());
+        }
+    }
+
+    private interface Query {
+        String run() throws IOException;
+    }
+
+    private void query(Query query) {
+        results.setText("Reading the intervals...");
+        Thread.startVirtualThread(() -> {
+            String text;
+            try {
+                text = query.run();
+            } catch (IOException e) {
+                e.printStackTrace();
+                text = "Unable to read the intervals: " + e.getMessage();
+            }
+            String result = text;
+            Platform.runLater(() -> results.setText(result));
+        });
+    }
+
+    /**
+     * @return the time per task spent on the days, as text
+     */
+    static String timeSpent(LocalDate from, LocalDate to) throws IOException {
+        ZoneId zone = ZoneId.systemDefault();
+        Map<String, Duration> times = IntervalLedger.load(from, to)
+                .timePerTask(from.atStartOfDay(zone).toInstant(), to.plusDays(1).atStartOfDay(zone).toInstant());
+        if (times.isEmpty()) {
+            return "No time recorded from %s to %s".formatted(from, to);
+        }
+        StringBuilder text = new StringBuilder("Time spent from %s to %s:%n".formatted(from, to));
+        Duration total = Duration.ZERO;
+        for (Map.Entry<String, Duration> entry : times.entrySet()) {
+            text.append("%10s  %s%n".formatted(format(entry.getValue()), entry.getKey()));
+            total = total.plus(entry.getValue());
+        }
+        return text.append("%10s  Total".formatted(format(total))).toString();
+    }
+
+    /**
+     * @return the tasks worked on at the time, as text
+     */
+    static String workingOn(LocalDateTime time) throws IOException {
+        List<WorkInterval> intervals = IntervalLedger.load(time.toLocalDate(), time.toLocalDate())
+                .at(time.atZone(ZoneId.systemDefault()).toInstant());
+        if (intervals.isEmpty()) {
+            return "Not working on a task at " + time;
+        }
+        StringBuilder text = new StringBuilder("Working at %s on:".formatted(time));
+        for (WorkInterval interval : intervals) {
+            text.append("%n  %s (%s to %s)".formatted(interval.task(),
+                    LocalTime.ofInstant(interval.start(), ZoneId.systemDefault()),
+                    LocalTime.ofInstant(interval.end(), ZoneId.systemDefault())));
+        }
+        return text.toString();
+    }
+
+    private static String format(Duration duration) {
+        return "%d:%02d:%02d".formatted(duration.toHours(), duration.toMinutesPart(), duration.toSecondsPart());
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import in.spbhat.EditableTask.EditableTaskStatus;
+import in.spbhat.PlanChange.*;
+import in.spbhat.PlanData.TaskData;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the time worked on the tasks in process.
+ * <p>
+ * The time of a task is tracked from the instant it is in process while working (a working session is
+ * running), until it leaves the in process state or the working session ends or is paused. The time
+ * tracked is then added to the actual duration of the task in the {@link TaskModel}. While tracking,
+ * the time is also added once a minute (so it is saved, and the clock faces move), and
+ * {@link #actualDuration(TaskData)} gives the actual duration up to now. Nothing runs while not working.
+ * <p>
+ * The intervals tracked are recorded in the {@link IntervalLedger}.
+ */
+public class TimeTracker {
+    private static final Duration checkpointPeriod = Duration.ofMinutes(1);
+
+    // changed holding the TaskModel lock, so the tracking changes together with the statuses
+    private static final Map<Long, Tracked> tracked = new ConcurrentHashMap<>();
+    private static boolean working;
+    private static TickScheduler.Job checkpointJob;
+
+    /**
+     * @param sinceNanos measures the time, as the start instant may be changed with the system clock
+     * @param task       description of the task, for recording the interval also after the task is removed
+     */
+    private record Tracked(long sinceNanos, Instant start, String task) {
+        static Tracked now(String task) {
+            return new Tracked(System.nanoTime(), Instant.now(), task);
+        }
+
+        Instant end(long nowNanos) {
+            return start.plusNanos(nowNanos - sinceNanos);
+        }
+    }
+
+    /**
+     * Follows the changes of the tasks from now on.
+     */
+    public static void start() {
+        synchronized (TaskModel.class) {
+            checkpointJob = TickScheduler.repeat("Task time checkpoint", checkpointPeriod, Duration.ofSeconds(15),
+                    TickScheduler.schedulerThread, TimeTracker::checkpoint);
+            checkpointJob.cancel();
+            TaskModel.subscribe(TimeTracker::tasksChanged);
+        }
+    }
+
+    /**
+     * Starts tracking the tasks in process when a working session starts or is resumed,
+     * and adds their time when it ends or is paused.
+     */
+    public static void setWorking(boolean working) {
+        synchronized (TaskModel.class) {
+            if (working == TimeTracker.working) {
+                return;
+            }
+            TimeTracker.working = working;
+            if (working) {
+                long nowNanos = System.nanoTime();
+                Instant now = Instant.now();
+                for (TaskData task : TaskModel.tasks(EditableTaskStatus.IN_PROCESS)) {
+                    tracked.put(task.id(), new Tracked(nowNanos, now, task.description()));
+                }
+            } else {
+                addTrackedTime(false);
+            }
+            updateCheckpointJob();
+        }
+    }
+
+    /**
+     * Adds the time tracked so far to the tasks, and keeps tracking them.
+     */
+    public static void checkpoint() {
+        synchronized (TaskModel.class) {
+            addTrackedTime(true);
+        }
+    }
+
+    /**
+     * @return the actual duration of the task including the time tracked so far
+     */
+    public static Duration actualDuration(TaskData task) {
+        Tracked since = tracked.get(task.id());
+        return since == null ? task.actualDuration()
+                : task.actualDuration().plusNanos(System.nanoTime() - since.sinceNanos());
+    }
+
+    /**
+     * @return the tasks with the time tracked so far included in their actual durations
+     */
+    public static List<TaskData> tasks() {
+        return TaskModel.tasks().stream()
+                .map(task -> withActualDuration(task, actualDuration(task)))
+                .toList();
+    }
+
+    // as one batch
+    private static void addTrackedTime(boolean keepTracking) {
+        if (tracked.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        Map<Long, Tracked> since = Map.copyOf(tracked);
+        TaskModel.updateAll(task -> since.containsKey(task.id()), task -> {
+            Tracked interval = since.get(task.id());
+            if (keepTracking) {
+                // the next part starts where it ended
+                tracked.put(task.id(), new Tracked(now, interval.end(now), task.description()));
+            } else {
+                tracked.remove(task.id());
+            }
+            return addInterval(task, interval, now);
+        });
+    }
+
+    private static TaskData addInterval(TaskData task, Tracked interval, long nowNanos) {
+        recordInterval(task.id(), task.description(), interval, nowNanos);
+        return withActualDuration(task, task.actualDuration().plusNanos(nowNanos - interval.sinceNanos()));
+    }
+
+    private static void recordInterval(long id, String task, Tracked interval, long nowNanos) {
+        IntervalLedger.record(id, task, interval.start(), interval.end(nowNanos))
+                .whenComplete((_, error) -> {
+                    if (error != null) error.printStackTrace();
+                });
+    }
+
+    // called holding the TaskModel lock
+    private static void tasksChanged(List<PlanChange> changes) {
+        for (PlanChange change : changes) {
+            switch (change) {
+                case TaskAdded(TaskData task) when task.status() == EditableTaskStatus.IN_PROCESS && working ->
+                        tracked.putIfAbsent(task.id(), Tracked.now(task.description()));
+                case TaskStatusChanged(long id, EditableTaskStatus status) -> {
+                    if (status == EditableTaskStatus.IN_PROCESS) {
+                        if (working) {
+                            TaskModel.task(id).ifPresent(task -> tracked.putIfAbsent(id, Tracked.now(task.description())));
+                        }
+                    } else {
+                        Tracked interval = tracked.remove(id);
+                        if (interval != null) {
+                            long now = System.nanoTime();
+                            TaskModel.update(id, task -> addInterval(task, interval, now));
+                        }
+                    }
+                }
+                case TaskTextChanged(long id, String text) -> tracked.computeIfPresent(id, (_, interval) ->
+                        new Tracked(interval.sinceNanos(), interval.start(), text));
+                case TaskRemoved(long id) -> {
+                    Tracked interval = tracked.remove(id); // the task is no longer in the model
+                    if (interval != null) recordInterval(id, interval.task(), interval, System.nanoTime());
+                }
+                default -> {
+                }
+            }
+        }
+        updateCheckpointJob();
+    }
+
+    private static void updateCheckpointJob() {
+        if (working && !tracked.isEmpty()) {
+            if (!checkpointJob.isScheduled()) checkpointJob.reschedule(checkpointPeriod);
+        } else {
+            checkpointJob.cancel();
+        }
+    }
+
+    private static TaskData withActualDuration(TaskData task, Duration actual) {
+        return new TaskData(task.id(), task.status(), task.description(), task.expectedDuration(), actual,
+                task.priority(), task.notes());
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2026.
+ * @author Sourabh P. Bhat ( https://spbhat.in/ )
+ * Created on 18 Oct, 2026
+ */
+
+package in.spbhat;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Applies the updates of the UI once per frame, instead of one {@link Platform#runLater(Runnable)} per change.
+ * <p>
+ * A producer creates a {@link Slot} once, and sets the latest value into it from any thread.
+ * On the next pulse, the newest value of each changed slot is applied on the JavaFX Application Thread;
+ * the values set in between are dropped. So the work on the UI thread in a frame is bounded by the number
+ * of slots, however often they are set, and setting a slot which is already pending allocates nothing.
+ * The pulses run only while there are pending updates.
+ */
+public class UiUpdates {
+    private static final Object NONE = new Object();
+    private static final Queue<Slot<?>> pending = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean pulseRequested = new AtomicBoolean(false);
+    private static final AtomicLong coalesced = new AtomicLong();
+    private static long applied = 0; // on the JavaFX Application Thread
+
+    private static final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            pulseRequested.set(false);
+            Slot<?> slot;
+            while ((slot = pending.poll()) != null) {
+                slot.apply();
+            }
+            if (pending.isEmpty()) {
+                stop(); // started again by the next update
+            }
+        }
+    };
+
+    /**
+     * The latest value to show, applied on the next pulse.
+     */
+    public static class Slot<T> {
+        private final Consumer<T> apply;
+        private final AtomicReference<Object> value = new AtomicReference<>(NONE);
+
+        private Slot(Consumer<T> apply) {
+            this.apply = apply;
+        }
+
+        /**
+         * Replaces the value waiting to be applied, if any.
+         */
+        public void set(T newValue) {
+            if (value.getAndSet(newValue) == NONE) {
+                pending.add(this);
+                requestPulse();
+            } else {
+                coalesced.incrementAndGet();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void apply() {
+            Object latest = value.getAndSet(NONE);
+            if (latest == NONE) {
+                return;
+            }
+            applied++;
+            try {
+                apply.accept((T) latest);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * An update without a value: the action is run once on the next pulse, however often it is requested.
+     */
+    public static class Trigger {
+        private final Slot<Boolean> slot;
+
+        private Trigger(Runnable action) {
+            slot = new Slot<>(_ -> action.run());
+        }
+
+        public void request() {
+            slot.set(Boolean.TRUE);
+        }
+    }
+
+    /**
+     * @param apply shows a value, called on the JavaFX Application Thread
+     */
+    public static <T> Slot<T> slot(Consumer<T> apply) {
+        return new Slot<>(apply);
+    }
+
+    /**
+     * @param action updates the UI, called on the JavaFX Application Thread
+     */
+    public static Trigger trigger(Runnable action) {
+        return new Trigger(action);
+    }
+
+    /**
+     * @return number of updates applied, and of the updates replaced by a newer one before being applied
+     */
+    public static String statistics() {
+        return "%d UI updates applied, %d coalesced".formatted(applied, coalesced.get());
+    }
+
+    private static void requestPulse() {
+        if (!pulseRequested.compareAndSet(false, true)) {
+            return;
+        }
+        if (Platform.isFxApplicationThread()) {
+            pulse.start();
+        } else {
+            Platform.runLater(pulse::start);
+        }
+    }
+}
@@ -10,15 +10,26 @@ import javafx.scene.paint.Color;
 
 import java.net.URL;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Icon {
+    // each icon is decoded once per size, and the image shared by all its views
+    private static final Map<String, Image> images = new ConcurrentHashMap<>();
+
     public static ImageView graphic(String iconName, int px) {
-        URL resource = Icon.class.getResource(iconName);
-        if (resource != null) {
-            return new ImageView(new Image(resource.toString(), px, -1, true, true));
-        } else {
-            return new ImageView(generatePlainImage(px, px));
-        }
+        return new ImageView(image(iconName, px));
+    }
+
+    public static Image image(String iconName, int px) {
+        return images.computeIfAbsent(iconName + "@" + px, _ -> {
+            URL resource = Icon.class.getResource(iconName);
+            if (resource != null) {
+                return new Image(resource.toString(), px, -1, true, true);
+            } else {
+                return generatePlainImage(px, px);
+            }
+        });
     }
 
     private static Image generatePlainImage(int width, int height) {